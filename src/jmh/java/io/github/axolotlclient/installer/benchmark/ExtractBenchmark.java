@@ -0,0 +1,93 @@
+/*
+ * Copyright © 2023-2023 moehreag <moehreag@gmail.com>, TheKodeToad <TheKodeToad@proton.me> & Contributors
+ *
+ * This file is part of AxolotlClient Installer.
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ * For more information, see the LICENSE file.
+ */
+
+package io.github.axolotlclient.installer.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import io.github.axolotlclient.installer.modrinth.pack.MrPack;
+import io.github.axolotlclient.installer.util.Util;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Reading a pack and extracting its overrides into an empty game directory.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ExtractBenchmark {
+
+    @Param({"10", "100", "500"})
+    public int mods;
+
+    @Param({"1024", "1048576", "104857600"})
+    public long overrideBytes;
+
+    private FakeModrinthServer server;
+    private Path temp;
+    private Path pack;
+    private Path output;
+
+    @Setup
+    public void setup() throws IOException {
+        server = new FakeModrinthServer();
+        temp = Files.createTempDirectory("extract-benchmark");
+        pack = temp.resolve("pack.mrpack");
+        Fixtures.writePack(pack, server, mods, overrideBytes);
+    }
+
+    @Setup(Level.Invocation)
+    public void clean() throws IOException {
+        output = temp.resolve("game");
+        Util.deleteTree(output);
+        Files.createDirectories(output);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        server.close();
+        Util.deleteTree(temp);
+    }
+
+    @Benchmark
+    public MrPack read() throws IOException {
+        return MrPack.read(pack, "client");
+    }
+
+    @Benchmark
+    public MrPack extract() throws IOException {
+        return MrPack.extract(pack, "client", output, Collections.emptyMap());
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright © 2023-2023 moehreag <moehreag@gmail.com>, TheKodeToad <TheKodeToad@proton.me> & Contributors
+ *
+ * This file is part of AxolotlClient Installer.
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ * For more information, see the LICENSE file.
+ */
+
+package io.github.axolotlclient.installer.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import io.github.axolotlclient.installer.http.HttpRequest;
+import io.github.axolotlclient.installer.http.HttpTransport;
+import io.github.axolotlclient.installer.http.UrlConnectionTransport;
+import io.github.axolotlclient.installer.util.Util;
+
+/**
+ * A local stand-in for Modrinth and its CDN, so that benchmarks measure the installer rather than the internet.
+ * Paths are matched without their query string.
+ */
+final class FakeModrinthServer implements AutoCloseable {
+
+    private static final String API = "https://api.modrinth.com/";
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newFixedThreadPool(16);
+    private final Map<String, byte[]> bodies = new ConcurrentHashMap<>();
+    private final Map<String, Path> files = new ConcurrentHashMap<>();
+
+    FakeModrinthServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 64);
+        server.createContext("/", this::handle);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    String getBaseUrl() {
+        return "http://" + server.getAddress().getHostString() + ':' + server.getAddress().getPort() + '/';
+    }
+
+    void serve(String path, byte[] body) {
+        bodies.put(path, body);
+    }
+
+    void serve(String path, Path file) {
+        files.put(path, file);
+    }
+
+    /**
+     * Gets a transport which sends Modrinth API requests here instead.
+     */
+    HttpTransport transport() {
+        UrlConnectionTransport delegate = new UrlConnectionTransport();
+        return request -> {
+            String url = request.getUrl().toString();
+            if (!url.startsWith(API))
+                return delegate.send(request);
+
+            HttpRequest local = new HttpRequest(redirect(url));
+            request.getHeaders().forEach(local::header);
+            return delegate.send(local);
+        };
+    }
+
+    private URL redirect(String url) throws MalformedURLException {
+        return new URL(getBaseUrl() + url.substring(API.length()));
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            String path = exchange.getRequestURI().getPath();
+            byte[] body = bodies.get(path);
+            Path file = files.get(path);
+            if (body != null) {
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            } else if (file != null) {
+                exchange.sendResponseHeaders(200, Files.size(file));
+                try (InputStream in = Files.newInputStream(file); OutputStream out = exchange.getResponseBody()) {
+                    Util.copy(in, out);
+                }
+            } else
+                exchange.sendResponseHeaders(404, -1);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
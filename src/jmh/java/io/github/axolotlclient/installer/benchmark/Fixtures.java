@@ -0,0 +1,162 @@
+/*
+ * Copyright © 2023-2023 moehreag <moehreag@gmail.com>, TheKodeToad <TheKodeToad@proton.me> & Contributors
+ *
+ * This file is part of AxolotlClient Installer.
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ * For more information, see the LICENSE file.
+ */
+
+package io.github.axolotlclient.installer.benchmark;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import io.github.axolotlclient.installer.util.Util;
+
+/**
+ * Generates synthetic version lists, packs and jars. Everything is derived from fixed seeds, so that runs are
+ * comparable.
+ */
+final class Fixtures {
+
+    static final int JAR_SIZE = 32 * 1024;
+    // the total override size is spread over this many files
+    private static final int OVERRIDE_FILES = 16;
+
+    private Fixtures() {
+    }
+
+    /**
+     * Builds a version list in the format of the Modrinth API, newest first.
+     */
+    static byte[] versionList(int count, String packUrl) {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < count; i++) {
+            if (i > 0)
+                json.append(',');
+
+            String gameVersion = "1." + (20 - i % 13) + '.' + i % 5;
+            json.append("{\"id\":\"v").append(i).append("\",\"name\":\"AxolotlClient ").append(i)
+                    .append("\",\"version_number\":\"").append(count - i).append(".0.0\",")
+                    .append("\"changelog\":\"").append(String.join("", Collections.nCopies(20, "Fixed things. ")))
+                    .append("\",\"game_versions\":[\"").append(gameVersion).append("\"],")
+                    .append("\"version_type\":\"").append(i % 7 == 0 ? "beta" : "release").append("\",")
+                    .append("\"loaders\":[\"quilt\"],\"featured\":").append(i < 3).append(',')
+                    .append("\"files\":[{\"url\":\"").append(packUrl).append("\",\"filename\":\"pack.mrpack\",")
+                    .append("\"hashes\":{\"sha1\":\"0000000000000000000000000000000000000000\",\"sha512\":\"00\"},")
+                    .append("\"size\":1,\"primary\":true}]}");
+        }
+        return json.append(']').toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    static byte[] jar(int index) {
+        byte[] bytes = new byte[JAR_SIZE];
+        new Random(index).nextBytes(bytes);
+        return bytes;
+    }
+
+    /**
+     * Writes a pack whose mods are served by the server under <code>/mods/</code>.
+     * @param overrideBytes the total size of the overrides.
+     */
+    static void writePack(Path file, FakeModrinthServer server, int mods, long overrideBytes) throws IOException {
+        StringBuilder files = new StringBuilder();
+        for (int i = 0; i < mods; i++) {
+            byte[] jar = jar(i);
+            String path = "mods/mod-" + i + ".jar";
+            server.serve('/' + path, jar);
+
+            if (i > 0)
+                files.append(',');
+            appendFile(files, path, jar, server.getBaseUrl() + path);
+        }
+
+        String index = "{\"formatVersion\":1,\"game\":\"minecraft\",\"versionId\":\"1.0.0\",\"name\":\"Benchmark\","
+                + "\"files\":[" + files + "],\"dependencies\":{\"minecraft\":\"1.20.1\",\"quilt-loader\":\"0.19.0\"}}";
+
+        try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(file))) {
+            out.putNextEntry(new ZipEntry("modrinth.index.json"));
+            out.write(index.getBytes(StandardCharsets.UTF_8));
+
+            int count = overrideBytes >= OVERRIDE_FILES * 1024 ? OVERRIDE_FILES : 1;
+            Random random = new Random(overrideBytes);
+            byte[] buffer = new byte[64 * 1024];
+            for (int i = 0; i < count; i++) {
+                out.putNextEntry(new ZipEntry("overrides/config/override-" + i + ".dat"));
+                writeRandom(out, random, buffer, overrideBytes / count);
+            }
+        }
+    }
+
+    private static void writeRandom(OutputStream out, Random random, byte[] buffer, long size) throws IOException {
+        // half random, half zeros, so that the entries compress about as well as real configs and resources
+        for (long written = 0; written < size; ) {
+            int length = (int) Math.min(buffer.length, size - written);
+            random.nextBytes(buffer);
+            Arrays.fill(buffer, length / 2, length, (byte) 0);
+            out.write(buffer, 0, length);
+            written += length;
+        }
+    }
+
+    /**
+     * Generates a shuffled catalog of game versions, mixing releases, pre-releases, release candidates,
+     * snapshots and combat tests.
+     */
+    static List<String> gameVersions(int count) {
+        List<String> versions = new ArrayList<>(count);
+        Random random = new Random(count);
+        for (int i = 0; i < count; i++) {
+            int minor = 1 + random.nextInt(20);
+            switch (random.nextInt(6)) {
+                case 0:
+                    versions.add("1." + minor + "-pre" + (1 + random.nextInt(8)));
+                    break;
+                case 1:
+                    versions.add("1." + minor + '.' + random.nextInt(5) + "-rc" + (1 + random.nextInt(3)));
+                    break;
+                case 2:
+                    versions.add((13 + random.nextInt(11)) + "w" + String.format("%02d", 1 + random.nextInt(52))
+                            + (char) ('a' + random.nextInt(3)));
+                    break;
+                case 3:
+                    versions.add("1.16_combat-" + (1 + random.nextInt(6)));
+                    break;
+                default:
+                    versions.add("1." + minor + (random.nextBoolean() ? "." + random.nextInt(5) : ""));
+            }
+        }
+        return versions;
+    }
+
+    private static void appendFile(StringBuilder files, String path, byte[] jar, String url) {
+        files.append("{\"path\":\"").append(path).append("\",\"hashes\":{\"sha1\":\"")
+                .append(Util.toHex(Util.sha1().digest(jar))).append("\"},\"env\":{\"client\":\"required\",")
+                .append("\"server\":\"required\"},\"downloads\":[\"").append(url).append("\"],\"fileSize\":")
+                .append(jar.length).append('}');
+    }
+}
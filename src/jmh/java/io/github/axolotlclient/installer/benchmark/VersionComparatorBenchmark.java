@@ -0,0 +1,75 @@
+/*
+ * Copyright © 2023-2023 moehreag <moehreag@gmail.com>, TheKodeToad <TheKodeToad@proton.me> & Contributors
+ *
+ * This file is part of AxolotlClient Installer.
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ * For more information, see the LICENSE file.
+ */
+
+package io.github.axolotlclient.installer.benchmark;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import io.github.axolotlclient.installer.util.MinecraftVersion;
+import io.github.axolotlclient.installer.util.MinecraftVersionComparator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Sorting game versions the way the version picker does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class VersionComparatorBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    public int versions;
+
+    private List<String> shuffled;
+    private List<MinecraftVersion> parsed;
+
+    @Setup
+    public void setup() {
+        shuffled = Fixtures.gameVersions(versions);
+        parsed = shuffled.stream().map(MinecraftVersion::parse).collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<String> sort() {
+        List<String> copy = new ArrayList<>(shuffled);
+        copy.sort(MinecraftVersionComparator.INSTANCE.reversed());
+        return copy;
+    }
+
+    @Benchmark
+    public List<MinecraftVersion> sortParsed() {
+        List<MinecraftVersion> copy = new ArrayList<>(parsed);
+        copy.sort(Comparator.reverseOrder());
+        return copy;
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright © 2023-2023 moehreag <moehreag@gmail.com>, TheKodeToad <TheKodeToad@proton.me> & Contributors
+ *
+ * This file is part of AxolotlClient Installer.
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ * For more information, see the LICENSE file.
+ */
+
+package io.github.axolotlclient.installer.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import io.github.axolotlclient.installer.http.Http;
+import io.github.axolotlclient.installer.http.HttpTransport;
+import io.github.axolotlclient.installer.modrinth.api.ProjectVersion;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Fetching and parsing the modpack's version list, with and without the local round trip.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class VersionListBenchmark {
+
+    private static final String SLUG = "axolotlclient-modpack";
+
+    @Param({"10", "100", "1000"})
+    public int versions;
+
+    private FakeModrinthServer server;
+    private HttpTransport previous;
+    private byte[] json;
+
+    @Setup
+    public void setup() throws IOException {
+        server = new FakeModrinthServer();
+        json = Fixtures.versionList(versions, server.getBaseUrl() + "pack.mrpack");
+        server.serve("/v2/project/" + SLUG + "/version", json);
+
+        previous = Http.getTransport();
+        Http.setTransport(server.transport());
+    }
+
+    @TearDown
+    public void tearDown() {
+        Http.setTransport(previous);
+        server.close();
+    }
+
+    @Benchmark
+    public List<ProjectVersion> getFeatured() throws IOException {
+        return ProjectVersion.getFeatured(SLUG);
+    }
+
+    @Benchmark
+    public List<ProjectVersion> read() throws IOException {
+        return ProjectVersion.read(new ByteArrayInputStream(json));
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ * Copyright © 2023-2023 moehreag <moehreag@gmail.com>, TheKodeToad <TheKodeToad@proton.me> & Contributors
+ *
+ * This file is part of AxolotlClient Installer.
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ * For more information, see the LICENSE file.
+ */
+
+package io.github.axolotlclient.installer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A lock on a data dir, which installs hold shared and garbage collection holds exclusively, so that nothing is
+ * deleted from the download cache while an install still needs it. Holds across processes as well.
+ */
+final class DataDirLock implements Closeable {
+
+    private static final String FILE_NAME = "lock";
+
+    // file locks are held by the whole process, so threads need to take turns themselves
+    private static final Map<Path, Holders> HOLDERS = new ConcurrentHashMap<>();
+
+    private final Holders holders;
+    private final boolean exclusive;
+    private boolean closed;
+
+    private DataDirLock(Holders holders, boolean exclusive) {
+        this.holders = holders;
+        this.exclusive = exclusive;
+    }
+
+    /**
+     * Waits until no one holds the lock exclusively, and takes it shared.
+     */
+    static DataDirLock shared(Path dataDir) throws IOException {
+        Holders holders = getHolders(dataDir);
+        synchronized (holders) {
+            while (holders.exclusive)
+                waitFor(holders);
+
+            if (holders.shared == 0)
+                holders.lock(true);
+            holders.shared++;
+        }
+        return new DataDirLock(holders, false);
+    }
+
+    /**
+     * Waits until no one holds the lock, and takes it exclusively.
+     */
+    static DataDirLock exclusive(Path dataDir) throws IOException {
+        Holders holders = getHolders(dataDir);
+        synchronized (holders) {
+            while (holders.exclusive || holders.shared > 0)
+                waitFor(holders);
+
+            holders.lock(false);
+            holders.exclusive = true;
+        }
+        return new DataDirLock(holders, true);
+    }
+
+    /**
+     * Takes the lock exclusively if no one holds it.
+     * @return the lock, or <code>null</code> if it is held.
+     */
+    static DataDirLock tryExclusive(Path dataDir) throws IOException {
+        Holders holders = getHolders(dataDir);
+        synchronized (holders) {
+            if (holders.exclusive || holders.shared > 0)
+                return null;
+
+            if (!holders.tryLock())
+                return null;
+
+            holders.exclusive = true;
+        }
+        return new DataDirLock(holders, true);
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (holders) {
+            if (closed)
+                return;
+
+            closed = true;
+            if (exclusive)
+                holders.exclusive = false;
+            else
+                holders.shared--;
+
+            if (!holders.exclusive && holders.shared == 0)
+                holders.unlock();
+            holders.notifyAll();
+        }
+    }
+
+    private static Holders getHolders(Path dataDir) throws IOException {
+        Files.createDirectories(dataDir);
+        return HOLDERS.computeIfAbsent(dataDir.toAbsolutePath().normalize(),
+                dir -> new Holders(dir.resolve(FILE_NAME)));
+    }
+
+    private static void waitFor(Holders holders) throws InterruptedIOException {
+        try {
+            holders.wait();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        }
+    }
+
+    /**
+     * Everyone in this process holding the lock on one data dir. They share a single file lock, since a process
+     * cannot take overlapping ones.
+     */
+    private static final class Holders {
+
+        private final Path file;
+        private FileChannel channel;
+        private int shared;
+        private boolean exclusive;
+
+        Holders(Path file) {
+            this.file = file;
+        }
+
+        void lock(boolean shared) throws IOException {
+            open();
+            try {
+                channel.lock(0, Long.MAX_VALUE, shared);
+            } catch (IOException | RuntimeException e) {
+                unlock();
+                throw e;
+            }
+        }
+
+        boolean tryLock() throws IOException {
+            open();
+            try {
+                if (channel.tryLock() != null)
+                    return true;
+            } catch (IOException | RuntimeException e) {
+                unlock();
+                throw e;
+            }
+
+            unlock();
+            return false;
+        }
+
+        /**
+         * Releases the file lock by closing the channel it was taken on.
+         */
+        void unlock() throws IOException {
+            FileChannel channel = this.channel;
+            this.channel = null;
+            if (channel != null)
+                channel.close();
+        }
+
+        private void open() throws IOException {
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright © 2023-2023 moehreag <moehreag@gmail.com>, TheKodeToad <TheKodeToad@proton.me> & Contributors
+ *
+ * This file is part of AxolotlClient Installer.
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ * For more information, see the LICENSE file.
+ */
+
+package io.github.axolotlclient.installer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import io.toadlabs.jfgjds.JsonDeserializer;
+import io.toadlabs.jfgjds.JsonSerializer;
+import io.toadlabs.jfgjds.data.JsonObject;
+import io.toadlabs.jfgjds.data.JsonValue;
+
+/**
+ * Records what was written into a game directory, so that later installs only need to apply the difference.
+ */
+public final class InstallManifest {
+
+    public static final String FILE_NAME = "axolotlclient-install.json";
+    private static final int FORMAT_VERSION = 1;
+
+    private final String packVersion;
+    private final Map<String, String> files;
+    private final Map<String, Long> overrides;
+
+    /**
+     * @param packVersion the modpack version.
+     * @param files the relative paths of downloaded files mapped to their SHA-1.
+     * @param overrides the relative paths of extracted overrides mapped to their CRC-32.
+     */
+    public InstallManifest(String packVersion, Map<String, String> files, Map<String, Long> overrides) {
+        this.packVersion = packVersion;
+        this.files = Collections.unmodifiableMap(new LinkedHashMap<>(files));
+        this.overrides = Collections.unmodifiableMap(new LinkedHashMap<>(overrides));
+    }
+
+    /**
+     * Reads the manifest from a game directory.
+     * @return the manifest, or <code>null</code> if there is no readable manifest.
+     */
+    public static InstallManifest read(Path gameDir) {
+        Path path = gameDir.resolve(FILE_NAME);
+        if (!Files.isRegularFile(path))
+            return null;
+
+        try (InputStream in = Files.newInputStream(path)) {
+            JsonObject obj = JsonDeserializer.read(in, StandardCharsets.UTF_8).asObject();
+            if (obj.get("formatVersion").getIntNumberValue() != FORMAT_VERSION)
+                return null;
+
+            Map<String, String> files = new LinkedHashMap<>();
+            Map<String, Long> overrides = new LinkedHashMap<>();
+            obj.get("files").asObject().forEach((key, value) -> files.put(key, value.getStringValue()));
+            obj.get("overrides").asObject()
+                    .forEach((key, value) -> overrides.put(key, Long.parseLong(value.getStringValue(), 16)));
+            return new InstallManifest(obj.getOpt("pack").map(JsonValue::getStringValue).orElse(null), files,
+                    overrides);
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Could not read install manifest; doing a full install");
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    public static boolean exists(Path gameDir) {
+        return Files.isRegularFile(gameDir.resolve(FILE_NAME));
+    }
+
+    /**
+     * Converts a relative path into the form used as a manifest key.
+     */
+    public static String key(Path path) {
+        return path.normalize().toString().replace('\\', '/');
+    }
+
+    public void write(Path gameDir) throws IOException {
+        JsonObject filesObj = JsonObject.of();
+        files.forEach(filesObj::put);
+
+        JsonObject overridesObj = JsonObject.of();
+        overrides.forEach((key, crc) -> overridesObj.put(key, Long.toHexString(crc)));
+
+        JsonObject obj = JsonObject.of("formatVersion", FORMAT_VERSION, "files", filesObj, "overrides", overridesObj);
+        if (packVersion != null)
+            obj.put("pack", packVersion);
+
+        Files.createDirectories(gameDir);
+        try (OutputStream out = Files.newOutputStream(gameDir.resolve(FILE_NAME))) {
+            JsonSerializer.write(obj, out, StandardCharsets.UTF_8);
+        }
+    }
+
+    public String getPackVersion() {
+        return packVersion;
+    }
+
+    public Map<String, String> getFiles() {
+        return files;
+    }
+
+    public Map<String, Long> getOverrides() {
+        return overrides;
+    }
+}
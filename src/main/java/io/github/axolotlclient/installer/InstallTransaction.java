@@ -0,0 +1,303 @@
+/*
+ * Copyright © 2023-2023 moehreag <moehreag@gmail.com>, TheKodeToad <TheKodeToad@proton.me> & Contributors
+ *
+ * This file is part of AxolotlClient Installer.
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ * For more information, see the LICENSE file.
+ */
+
+package io.github.axolotlclient.installer;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryNotEmptyException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import io.github.axolotlclient.installer.util.Util;
+
+/**
+ * Stages the changes to a directory next to it, and moves them in only once everything has been written.
+ * <p>
+ * The staging directory is a sibling of the target, so that every file can be moved in atomically. Replaced and
+ * deleted files are kept until the transaction is closed, so that a commit can still be rolled back. If the
+ * process dies while committing, the next transaction on the same directory finishes the commit first.
+ * <p>
+ * Each staging directory holds a lock for as long as its transaction is open, so that recovery only touches
+ * the ones whose installer is gone, and never those of an install running in parallel.
+ */
+public final class InstallTransaction implements Closeable {
+
+    private static final String PREFIX = "-install-";
+    private static final String STAGED = "staged";
+    private static final String BACKUP = "backup";
+    // lists the deleted files; its presence means the commit has started
+    private static final String JOURNAL = "commit";
+    private static final String LOCK = "lock";
+
+    private final Path root;
+    private final Path dir;
+    private final Path staged;
+    private final Path backup;
+    private final Set<String> deletes = Collections.synchronizedSet(new LinkedHashSet<>());
+    private final List<String> committed = new ArrayList<>();
+    private final List<String> deleted = new ArrayList<>();
+    private FileLock lock;
+
+    private InstallTransaction(Path root, Path dir) {
+        this.root = root;
+        this.dir = dir;
+        staged = dir.resolve(STAGED);
+        backup = dir.resolve(BACKUP);
+    }
+
+    /**
+     * Starts a transaction on a directory, recovering any earlier transaction which did not finish.
+     */
+    public static InstallTransaction begin(Path root) throws IOException {
+        root = root.toAbsolutePath().normalize();
+        Path parent = root.getParent();
+        Files.createDirectories(parent);
+        recover(root);
+
+        Path dir = Files.createTempDirectory(parent, getPrefix(root));
+        InstallTransaction transaction = new InstallTransaction(root, dir);
+        transaction.lock = tryLock(dir);
+        if (transaction.lock == null)
+            throw new IOException("Could not lock " + dir);
+
+        Files.createDirectories(transaction.staged);
+        return transaction;
+    }
+
+    /**
+     * Commits several transactions. If one of them fails, the ones that were already committed are rolled back.
+     */
+    public static void commitAll(List<InstallTransaction> transactions) throws IOException {
+        for (int i = 0; i < transactions.size(); i++) {
+            try {
+                transactions.get(i).commit();
+            } catch (IOException | RuntimeException e) {
+                for (int j = i; j >= 0; j--) {
+                    try {
+                        transactions.get(j).rollback();
+                    } catch (IOException rollbackError) {
+                        e.addSuppressed(rollbackError);
+                    }
+                }
+                throw e;
+            }
+        }
+    }
+
+    public Path getRoot() {
+        return root;
+    }
+
+    /**
+     * Gets the directory which mirrors the root, into which all new files should be written.
+     */
+    public Path getStaged() {
+        return staged;
+    }
+
+    /**
+     * Gets the path to write a file to.
+     * @param relative the path of the file relative to the root.
+     */
+    public Path stage(String relative) throws IOException {
+        return Util.checkParent(staged, staged.resolve(relative));
+    }
+
+    /**
+     * Deletes a file when the transaction is committed.
+     * @param relative the path of the file relative to the root.
+     */
+    public void delete(String relative) throws IOException {
+        Util.checkParent(root, root.resolve(relative));
+        deletes.add(InstallManifest.key(root.getFileSystem().getPath(relative)));
+    }
+
+    /**
+     * Moves the staged files into the root, replacing what is there. The install manifest is moved last, so that
+     * it never describes files which are not in place yet.
+     */
+    public void commit() throws IOException {
+        List<String> deletes = new ArrayList<>(this.deletes);
+        Util.writeAtomically(dir.resolve(JOURNAL),
+                out -> out.write(String.join("\n", deletes).getBytes(StandardCharsets.UTF_8)));
+
+        apply(deletes);
+    }
+
+    private void apply(List<String> deletes) throws IOException {
+        for (String relative : deletes) {
+            Path target = root.resolve(relative);
+            if (!Files.isRegularFile(target))
+                continue;
+
+            Path saved = backup.resolve(relative);
+            Files.createDirectories(saved.getParent());
+            Util.moveAtomically(target, saved);
+            deleted.add(relative);
+        }
+
+        List<String> files;
+        try (Stream<Path> stream = Files.walk(staged)) {
+            files = stream.filter(Files::isRegularFile).map(path -> InstallManifest.key(staged.relativize(path)))
+                    .collect(Collectors.toList());
+        }
+        if (files.remove(InstallManifest.FILE_NAME))
+            files.add(InstallManifest.FILE_NAME);
+
+        for (String relative : files) {
+            Path target = root.resolve(relative);
+            Files.createDirectories(target.getParent());
+            if (Files.exists(target)) {
+                Path saved = backup.resolve(relative);
+                Files.createDirectories(saved.getParent());
+                Util.moveAtomically(target, saved);
+            }
+
+            Util.moveAtomically(staged.resolve(relative), target);
+            committed.add(relative);
+        }
+    }
+
+    /**
+     * Undoes a commit, or part of one, by putting back the files it replaced and deleted.
+     */
+    public void rollback() throws IOException {
+        for (int i = committed.size() - 1; i >= 0; i--) {
+            String relative = committed.get(i);
+            Path saved = backup.resolve(relative);
+            if (Files.exists(saved))
+                Util.moveAtomically(saved, root.resolve(relative));
+            else
+                Files.deleteIfExists(root.resolve(relative));
+        }
+        committed.clear();
+
+        for (String relative : deleted)
+            Util.moveAtomically(backup.resolve(relative), root.resolve(relative));
+        deleted.clear();
+
+        Files.deleteIfExists(dir.resolve(JOURNAL));
+    }
+
+    /**
+     * Discards the staged files if the transaction was not committed, or the replaced files if it was.
+     */
+    @Override
+    public void close() throws IOException {
+        discard(dir, lock);
+    }
+
+    private static void recover(Path root) throws IOException {
+        // matched by hand, since the name of the game dir may contain glob syntax
+        String prefix = getPrefix(root);
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(root.getParent())) {
+            for (Path leftover : stream) {
+                if (!leftover.getFileName().toString().startsWith(prefix) || !Files.isDirectory(leftover))
+                    continue;
+
+                FileLock lock = tryLock(leftover);
+                // still in use by a running install
+                if (lock == null)
+                    continue;
+
+                // a commit which was cut short is finished, anything else is thrown away
+                Path journal = leftover.resolve(JOURNAL);
+                if (Files.isRegularFile(journal)) {
+                    System.err.println("Finishing an interrupted install into " + root);
+                    InstallTransaction transaction = new InstallTransaction(root, leftover);
+                    try (BufferedReader reader = Files.newBufferedReader(journal, StandardCharsets.UTF_8)) {
+                        transaction.apply(reader.lines().collect(Collectors.toList()));
+                    } catch (IOException | RuntimeException e) {
+                        lock.channel().close();
+                        throw e;
+                    }
+                }
+                discard(leftover, lock);
+            }
+        }
+    }
+
+    /**
+     * Locks a staging directory.
+     * @return the lock, or <code>null</code> if another transaction holds it or the directory is gone.
+     */
+    private static FileLock tryLock(Path dir) throws IOException {
+        FileChannel channel;
+        try {
+            channel = FileChannel.open(dir.resolve(LOCK), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        } catch (NoSuchFileException e) {
+            // deleted by its transaction in the meantime
+            return null;
+        }
+
+        FileLock lock = null;
+        try {
+            lock = channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            // held by a transaction in this process
+        } finally {
+            if (lock == null)
+                channel.close();
+        }
+        return lock;
+    }
+
+    /**
+     * Deletes a staging directory. Everything but the lock is deleted while it is still held, so that no other
+     * transaction starts recovering the directory halfway through.
+     */
+    private static void discard(Path dir, FileLock lock) throws IOException {
+        try (FileChannel channel = lock.channel();
+                DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+            for (Path path : stream)
+                if (!path.getFileName().toString().equals(LOCK))
+                    Util.deleteTree(path);
+        }
+
+        Files.deleteIfExists(dir.resolve(LOCK));
+        try {
+            Files.deleteIfExists(dir);
+        } catch (DirectoryNotEmptyException e) {
+            // another transaction locked it just after it was released, and cleans it up instead
+        }
+    }
+
+    private static String getPrefix(Path root) {
+        return '.' + root.getFileName().toString() + PREFIX;
+    }
+}
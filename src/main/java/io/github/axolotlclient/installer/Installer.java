@@ -26,24 +26,53 @@ import static io.github.axolotlclient.installer.util.Translate.tr;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.OutputStream;
+import java.io.InterruptedIOException;
 import java.net.URL;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
 import java.util.Base64;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
-import java.util.stream.Collectors;
-
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.UnaryOperator;
+
+import io.github.axolotlclient.installer.http.BundleTransport;
+import io.github.axolotlclient.installer.http.BundleWriter;
+import io.github.axolotlclient.installer.http.Http;
+import io.github.axolotlclient.installer.http.HttpCache;
+import io.github.axolotlclient.installer.http.HttpResponse;
+import io.github.axolotlclient.installer.http.Mirrors;
+import io.github.axolotlclient.installer.loader.LoaderInstallers;
+import io.github.axolotlclient.installer.loader.LoaderProfile;
 import io.github.axolotlclient.installer.modrinth.api.ProjectFile;
 import io.github.axolotlclient.installer.modrinth.api.ProjectVersion;
 import io.github.axolotlclient.installer.modrinth.api.ReleaseChannel;
+import io.github.axolotlclient.installer.modrinth.api.VersionCatalog;
+import io.github.axolotlclient.installer.modrinth.api.VersionQuery;
+import io.github.axolotlclient.installer.modrinth.pack.MrDownloader;
+import io.github.axolotlclient.installer.modrinth.pack.MrFile;
 import io.github.axolotlclient.installer.modrinth.pack.MrPack;
-import io.github.axolotlclient.installer.util.MinecraftVersionComparator;
+import io.github.axolotlclient.installer.util.DownloadCache;
+import io.github.axolotlclient.installer.util.LoaderProfileCache;
+import io.github.axolotlclient.installer.util.ResumableDownload;
 import io.github.axolotlclient.installer.util.Util;
 import io.toadlabs.jfgjds.JsonDeserializer;
 import io.toadlabs.jfgjds.JsonSerializer;
@@ -56,18 +85,88 @@ import io.toadlabs.jfgjds.data.JsonValue;
 public final class Installer {
 
     private static final String MR_SLUG = "axolotlclient-modpack";
-    private static final String QUILT_LOADER = "https://meta.quiltmc.org/v3/versions/loader/%s/%s/profile/json";
-    private static final String FABRIC_LOADER = "https://meta.fabricmc.net/v2/versions/loader/%s/%s/profile/json";
-    private static final String ORNITHE_LOADER = "https://meta.ornithemc.net/v3/versions/fabric-loader/%s/%s/profile/json";
-    private static final String COMBAT_SNAPSHOT_FABRIC_LOADER = "https://meta.fabric.rizecookey.net/v2/versions/loader/%s/%s/profile/json";
+    private static final String DATA_DIR = "axolotlclient-installer";
+    // the game dirs installed to, so that the shared files they use are not garbage collected
+    private static final String INSTANCES = "instances.json";
+    private static final String LOCK_SUFFIX = ".lock";
+    private static final String MIRRORS = "mirrors.json";
+    private static final int PREFETCH_THREADS = 4;
+    // file locks are held by the whole process, so threads need to take turns themselves
+    private static final Map<Path, Object> INSTANCE_LOCKS = new ConcurrentHashMap<>();
     private static final String ICON;
 
     static {
         ICON = getIcon();
     }
 
-    private List<String> availableGameVers = Collections.emptyList();
-    private final Map<String, ProjectVersion> modVerFromGameVer = new HashMap<>();
+    private final Path dataDir;
+    private final HttpCache metadataCache;
+    private final LoaderProfileCache loaderProfiles;
+    private volatile boolean servedFromCache;
+    private boolean linkFiles;
+    private String profileIcon = ICON;
+    private volatile VersionCatalog catalog = VersionCatalog.EMPTY;
+    private volatile ReleaseChannel channel = ReleaseChannel.RELEASE;
+    private volatile Mirrors mirrors = new Mirrors(Collections.emptyList());
+
+    public Installer() {
+        this(getDataDir(Util.getDotMinecraft()));
+    }
+
+    /**
+     * @param dataDir the directory used to cache metadata and loader profiles between runs. If it has a
+     * <code>mirrors.json</code>, downloads use the mirrors it configures.
+     */
+    public Installer(Path dataDir) {
+        this.dataDir = dataDir;
+        metadataCache = new HttpCache(dataDir.resolve("metadata"));
+        loaderProfiles = new LoaderProfileCache(dataDir.resolve("loaders"));
+
+        Path mirrors = dataDir.resolve(MIRRORS);
+        if (Files.isRegularFile(mirrors)) {
+            try {
+                this.mirrors = Mirrors.read(mirrors);
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Could not read " + mirrors + "; downloading without mirrors");
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Sets whether mods are hard linked from a store shared by all game dirs instead of copied into each of them.
+     * Files are still copied where the file system does not support links.
+     */
+    public void setLinkFiles(boolean linkFiles) {
+        this.linkFiles = linkFiles;
+    }
+
+    public Mirrors getMirrors() {
+        return mirrors;
+    }
+
+    /**
+     * Sets the mirrors which downloads are rewritten to, replacing the ones read from <code>mirrors.json</code>.
+     */
+    public void setMirrors(Mirrors mirrors) {
+        this.mirrors = mirrors;
+    }
+
+    /**
+     * Gets the mirrors to download through. A bundle is keyed by the original URLs, so they are never rewritten
+     * while installing from one.
+     */
+    private Mirrors getActiveMirrors() {
+        return Http.getTransport() instanceof BundleTransport ? new Mirrors(Collections.emptyList()) : mirrors;
+    }
+
+    /**
+     * Sets the icon of created launcher profiles: a data URL, or the name of one of the launcher's own icons,
+     * such as <code>Furnace</code>. Defaults to the AxolotlClient icon, which is embedded in every profile.
+     */
+    public void setProfileIcon(String profileIcon) {
+        this.profileIcon = profileIcon;
+    }
 
     private static String getIcon() {
         try {
@@ -80,124 +179,628 @@ public final class Installer {
         }
     }
 
+    /**
+     * Loads the available versions. If they were fetched before, the cached list is used without waiting for the
+     * network; call {@link #refresh()} afterwards to revalidate it.
+     */
     public void load() throws IOException {
-        // create a mapping of game version to latest mod version
-        ProjectVersion.getFeatured(MR_SLUG).forEach((version) -> {
-            if (version.getVersionType() != ReleaseChannel.RELEASE)
+        URL url = versionQuery().toUrl();
+        Path cached = metadataCache.get(url);
+        if (cached != null) {
+            try {
+                apply(cached);
+                servedFromCache = true;
                 return;
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Cached version list is unreadable; fetching it again");
+                e.printStackTrace();
+            }
+        }
 
-            for (String gameVersion : version.getGameVersions())
-                if (!this.modVerFromGameVer.containsKey(gameVersion))
-                    this.modVerFromGameVer.put(gameVersion, version);
-        });
-        // collect a sorted list of game versions
-        availableGameVers = modVerFromGameVer.keySet().stream().sorted(MinecraftVersionComparator.INSTANCE.reversed())
-                .collect(Collectors.toList());
+        metadataCache.revalidate(url);
+        apply(metadataCache.get(url));
+    }
+
+    /**
+     * Revalidates a version list which was loaded from the cache. Failures are ignored so that the cached list
+     * keeps working offline.
+     * @return <code>true</code> if the available versions changed.
+     */
+    public boolean refresh() {
+        if (!servedFromCache)
+            return false;
+
+        try {
+            URL url = versionQuery().toUrl();
+            if (!metadataCache.revalidate(url))
+                return false;
+
+            apply(metadataCache.get(url));
+            return true;
+        } catch (IOException e) {
+            System.err.println("Could not refresh the version list; using the cached one");
+            e.printStackTrace();
+            return false;
+        } finally {
+            servedFromCache = false;
+        }
+    }
+
+    /**
+     * Loads the available versions straight from the transport, neither reading nor writing the cache. Used with
+     * a {@link BundleTransport}, whose version list must not replace the one fetched from Modrinth.
+     */
+    public void loadUncached() throws IOException {
+        try (HttpResponse response = Http.get(versionQuery().toUrl()); InputStream in = response.getBody()) {
+            apply(in);
+        }
+        servedFromCache = false;
+    }
+
+    private static VersionQuery versionQuery() {
+        return ProjectVersion.query(MR_SLUG);
+    }
+
+    private void apply(Path versionList) throws IOException {
+        try (InputStream in = Files.newInputStream(versionList)) {
+            apply(in);
+        }
+    }
+
+    private void apply(InputStream versionList) throws IOException {
+        // every channel is kept, so that switching channels needs no refetch
+        catalog = new VersionCatalog(ProjectVersion.read(versionList));
     }
 
     public void install(ProjectVersion version, Path launcherDir, Path gameDir, ProgressConsumer progress)
             throws IOException {
-        ProjectFile file = version.getFiles().stream().filter(ProjectFile::isPrimary).findFirst()
-                .orElseThrow(() -> new IllegalStateException("No primary file found"));
+        install(version, launcherDir, Collections.singletonList(gameDir), progress);
+    }
+
+    /**
+     * Installs into several game directories at once. The pack and each mod are only downloaded once, and the
+     * loader and launcher profiles are only written once.
+     * <p>
+     * Once the pack index has been read, the loader profile is fetched while every game directory downloads its
+     * mods and extracts its overrides, all in parallel; the launcher profiles are only written when all of them
+     * have finished.
+     */
+    public void install(ProjectVersion version, Path launcherDir, List<Path> gameDirs, ProgressConsumer progress)
+            throws IOException {
+        ProjectFile file = getPrimaryFile(version);
         progress.update(tr("downloading_modpack"), -1);
-        MrPack pack;
-        try (InputStream in = Util.openStream(new URL(file.getUrl()))) {
-            pack = MrPack.extract(in, "client", gameDir);
-        }
 
-        pack.installMods(gameDir, ignored -> false, progress);
+        Mirrors mirrors = getActiveMirrors();
+        Path sharedDir = getDataDir(launcherDir);
+        DownloadCache cache = new DownloadCache(sharedDir.resolve("files"));
+        // nothing is collected from the cache until every game dir records what it uses
+        DataDirLock lock = DataDirLock.shared(sharedDir);
+
+        AtomicInteger threadId = new AtomicInteger();
+        ExecutorService executor = Executors.newCachedThreadPool(task -> {
+            Thread thread = new Thread(task, "install-" + threadId.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
 
-        Path versions = launcherDir.resolve("versions");
-        URL url;
+        // nothing is written outside the staging dirs until every file has been fetched
+        List<InstallTransaction> transactions = new ArrayList<>();
+        MrPack pack;
         String versionName;
-
-        // install the loader
-        progress.update(tr("installing_loader"), -1);
+        try {
+            pack = MrPack.read(downloadPack(file, cache, mirrors), "client");
+            InstallTransaction versions = InstallTransaction.begin(launcherDir.resolve("versions"));
+            transactions.add(versions);
+            Future<String> loader = executor.submit(() -> installLoader(pack, versions));
+
+            // a mod needed by several game dirs is downloaded into the cache by whichever gets to it first, and
+            // the others wait for it there; all of them share one downloader, so that its thread and per-host
+            // limits hold for the whole install
+            MrDownloader downloader = new MrDownloader();
+            downloader.setCache(cache);
+            downloader.setLink(linkFiles);
+            downloader.setMirrors(mirrors);
+            List<Future<?>> installs = new ArrayList<>();
+            float[] shares = new float[gameDirs.size()];
+            for (int i = 0; i < gameDirs.size(); i++) {
+                InstallTransaction transaction = InstallTransaction.begin(gameDirs.get(i));
+                transactions.add(transaction);
+                ProgressConsumer share = share(progress, shares, i);
+                installs.add(executor.submit(() -> {
+                    installFiles(pack, transaction, downloader, executor, share);
+                    return null;
+                }));
+            }
+            awaitAll(installs);
+
+            if (!loader.isDone())
+                progress.update(tr("installing_loader"), -1);
+            versionName = await(loader);
+
+            InstallTransaction.commitAll(transactions);
+            registerInstances(sharedDir, gameDirs);
+        } finally {
+            executor.shutdownNow();
+            for (InstallTransaction transaction : transactions) {
+                try {
+                    transaction.close();
+                } catch (IOException e) {
+                    System.err.println("Failed to clean up " + transaction.getRoot());
+                    e.printStackTrace();
+                }
+            }
+            lock.close();
+        }
+        evictCache(sharedDir);
 
         String gameVersion = pack.getDependencies().get("minecraft");
-        boolean fixInheritsFrom = false;
-
-        if (pack.getDependencies().containsKey("quilt-loader")) {
-            // install quilt!
-            String quiltLoader = pack.getDependencies().get("quilt-loader");
-            url = new URL(String.format(QUILT_LOADER, gameVersion, quiltLoader));
-            versionName = "quilt-loader-" + quiltLoader + '-' + gameVersion;
-        } else if (pack.getDependencies().containsKey("fabric-loader")) {
-            // install fabric!
-            String fabricLoader = pack.getDependencies().get("fabric-loader");
-
-            versionName = "fabric-loader-" + fabricLoader + '-' + gameVersion;
-
-            // heuristic for legacy fabric, version range: ([1.0;1.13.2]) (both ends inclusive)
-            if (MinecraftVersionComparator.INSTANCE.compare(gameVersion, "1.13.2") <= 0 && MinecraftVersionComparator.INSTANCE.compare(gameVersion, "1.0") >= 0) {
-                url = new URL(String.format(ORNITHE_LOADER, gameVersion, fabricLoader));
-                versionName += "-ornithe-gen1";
-                fixInheritsFrom = true;
-            } else if (gameVersion.equals("1.16_combat-6"))
-                url = new URL(String.format(COMBAT_SNAPSHOT_FABRIC_LOADER, gameVersion, fabricLoader));
-            else
-                url = new URL(String.format(FABRIC_LOADER, gameVersion, fabricLoader));
-        } else
-            throw new UnsupportedOperationException("Cannot find supported mod loader!");
-
-        Path versionDir = versions.resolve(versionName);
-        Path versionJson = versionDir.resolve(versionName + ".json");
-
-        if (!Files.exists(versionJson)) {
-            if (!Files.isDirectory(versionDir))
-                Files.createDirectories(versionDir);
-
-            try (InputStream in = Util.openStream(url)) {
-                if (fixInheritsFrom) {
-                    JsonObject versionObj = JsonDeserializer.read(in, StandardCharsets.UTF_8).asObject();
-
-                    if (versionObj.contains("inheritsFrom")) {
-                        String inheritsFrom = versionObj.get("inheritsFrom").getStringValue();
-                        String vanillaSuffix = "-vanilla";
-
-                        if (inheritsFrom.endsWith(vanillaSuffix))
-                            inheritsFrom = inheritsFrom.substring(0, inheritsFrom.length() - vanillaSuffix.length());
-
-                        versionObj.put("inheritsFrom", inheritsFrom);
-                    }
-
-                    try (OutputStream out = Files.newOutputStream(versionJson)) {
-                        JsonSerializer.write(versionObj, out, StandardCharsets.UTF_8);
-                    }
-                } else
-                    Files.copy(in, versionJson);
+        LauncherProfileStore profiles = new LauncherProfileStore(launcherDir, profileIcon);
+        for (Path gameDir : gameDirs) {
+            String id = "axolotlclient-" + gameVersion;
+            String name = "AxolotlClient " + gameVersion;
+            // several dirs for the same version need a profile each
+            if (gameDirs.size() > 1) {
+                id += "-" + gameDir.getFileName();
+                name += " (" + gameDir.getFileName() + ')';
+            }
+
+            profiles.put(id, name, versionName, gameDir);
+        }
+        profiles.commit();
+    }
+
+    /**
+     * Writes everything needed to install a version into one archive, so that it can be installed without a
+     * network using {@link BundleTransport}. Optional files are included as well. Files are taken from, and
+     * downloaded into, the same download cache as installs into the launcher dir.
+     */
+    public void exportBundle(ProjectVersion version, Path launcherDir, Path output, ProgressConsumer progress)
+            throws IOException {
+        ProjectFile file = getPrimaryFile(version);
+        Mirrors mirrors = getActiveMirrors();
+        Path sharedDir = getDataDir(launcherDir);
+        DownloadCache cache = new DownloadCache(sharedDir.resolve("files"));
+        Path temp = Files.createTempDirectory("axolotlclient-bundle");
+        try (DataDirLock lock = DataDirLock.shared(sharedDir); BundleWriter writer = new BundleWriter(output)) {
+            // the version list, so that the game version can be looked up offline
+            URL versionList = versionQuery().toUrl();
+            metadataCache.revalidate(versionList);
+            writer.add(Collections.singletonList(versionList.toString()), metadataCache.get(versionList));
+
+            progress.update(tr("downloading_modpack"), -1);
+            Path packFile = downloadPack(file, cache, mirrors);
+            writer.add(Collections.singletonList(file.getUrl()), packFile);
+            MrPack pack = MrPack.read(packFile, "client");
+
+            // the fixes applied to the profile can safely be applied again when installing from the bundle
+            LoaderProfile loader = LoaderInstallers.resolve(pack.getDependencies());
+            writer.add(Collections.singletonList(loader.getUrl().toString()), getLoaderProfile(loader));
+
+            List<MrFile> files = pack.getInstallableFiles(ignored -> true);
+            Path filesDir = temp.resolve("files");
+            // linked rather than copied out of the cache, since they are only read
+            MrDownloader downloader = new MrDownloader();
+            downloader.setCache(cache);
+            downloader.setLink(true);
+            downloader.setMirrors(mirrors);
+            Map<MrFile, IOException> failures = downloader.downloadAll(filesDir, files, progress);
+            if (!failures.isEmpty()) {
+                IOException error = new IOException("Failed to download " + failures.size() + " of " + files.size()
+                        + " files for the bundle");
+                failures.values().forEach(error::addSuppressed);
+                throw error;
             }
+
+            for (MrFile mrFile : files)
+                writer.add(mrFile.getUrls(), filesDir.resolve(mrFile.getPath()));
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(output);
+            throw e;
+        } finally {
+            Util.deleteTree(temp);
+        }
+        evictCache(sharedDir);
+    }
+
+    private static ProjectFile getPrimaryFile(ProjectVersion version) {
+        return version.getFiles().stream().filter(ProjectFile::isPrimary).findFirst()
+                .orElseThrow(() -> new IllegalStateException("No primary file found"));
+    }
+
+    private static Path downloadPack(ProjectFile file, DownloadCache cache, Mirrors mirrors) throws IOException {
+        Path packFile = cache.get(file.getSha1());
+        if (packFile == null) {
+            // download straight into the cache, so that an interrupted download can be resumed
+            packFile = cache.getPath(file.getSha1());
+            download(file, packFile, mirrors);
         }
+        return packFile;
+    }
 
-        Path launcherProfiles = launcherDir.resolve("launcher_profiles.json");
-        JsonObject profiles = null;
-        if (Files.exists(launcherProfiles)) {
-            try (InputStream in = Files.newInputStream(launcherProfiles)) {
-                profiles = JsonDeserializer.read(in, StandardCharsets.UTF_8).asObject();
+    private static void download(ProjectFile file, Path target, Mirrors mirrors) throws IOException {
+        IOException lastError = null;
+        for (URL url : mirrors.candidates(Collections.singletonList(file.getUrl()), file.getSize())) {
+            try {
+                ResumableDownload.download(url, target, file.getSha1(), file.getSize(), ProgressConsumer.NONE);
+                return;
+            } catch (InterruptedIOException e) {
+                throw e;
             } catch (IOException e) {
-                System.err.println("Could not open profiles");
-                e.printStackTrace();
+                mirrors.recordFailure(url);
+                if (lastError != null)
+                    e.addSuppressed(lastError);
+                lastError = e;
             }
         }
+        throw lastError != null ? lastError : new IOException("Every mirror for " + file.getUrl() + " is excluded");
+    }
 
-        if (profiles == null)
-            profiles = JsonObject.of("version", 3);
+    private static void installFiles(MrPack pack, InstallTransaction transaction, MrDownloader downloader,
+            ExecutorService executor, ProgressConsumer progress) throws IOException {
+        Path gameDir = transaction.getRoot();
+        Path staged = transaction.getStaged();
+
+        // if the game dir was installed to before, only apply what changed since then
+        InstallManifest previous = InstallManifest.read(gameDir);
+
+        Map<String, String> installed = new LinkedHashMap<>();
+        List<MrFile> changed = new ArrayList<>();
+        for (MrFile mrFile : pack.getInstallableFiles(ignored -> false)) {
+            String key = InstallManifest.key(mrFile.getPath());
+            // an override replaces the file at its path, so that file is not installed at all; otherwise the
+            // download and the extraction, which run at the same time, would race for it
+            if (pack.getOverrides().containsKey(key))
+                continue;
+
+            installed.put(key, mrFile.getSha1());
+            // where an override was extracted last time, the file on disk is the override rather than the mod
+            boolean unchanged = previous != null ? mrFile.getSha1().equalsIgnoreCase(previous.getFiles().get(key))
+                    && !previous.getOverrides().containsKey(key) && isPresent(gameDir, mrFile)
+                    : isValid(gameDir, mrFile);
+            if (!unchanged)
+                changed.add(mrFile);
+        }
 
-        JsonObject profilesMap = profiles.computeIfAbsent("profiles", JsonObject.DEFAULT_COMPUTION).asObject();
-        profilesMap.put("axolotlclient-" + gameVersion,
-                JsonObject.of("created", new Date(), "lastUsed", new Date(), "lastVersionId", versionName, "name",
-                        "AxolotlClient " + gameVersion, "icon", ICON, "gameDir", gameDir.toAbsolutePath()));
+        if (previous != null)
+            removeStale(transaction, previous, installed.keySet(), pack.getOverrides());
 
-        try (OutputStream out = Files.newOutputStream(launcherProfiles)) {
-            JsonSerializer.write(profiles, out, StandardCharsets.UTF_8);
+        Future<?> overrides = executor.submit(() -> {
+            pack.extractOverrides(gameDir, staged,
+                    previous != null ? previous.getOverrides() : Collections.emptyMap());
+            return null;
+        });
+
+        Map<MrFile, IOException> failures;
+        try {
+            failures = downloader.downloadAll(staged, changed, progress);
+        } finally {
+            // the overrides are always waited for, so that no extraction outlives the install
+            await(overrides);
         }
+
+        // a partial install is worse than none, since the game would start with mods missing
+        if (!failures.isEmpty()) {
+            IOException error = new IOException(
+                    "Failed to download " + failures.size() + " of " + changed.size() + " files into " + gameDir);
+            failures.values().forEach(error::addSuppressed);
+            throw error;
+        }
+
+        new InstallManifest(pack.getVersionId(), installed, pack.getOverrides()).write(staged);
+    }
+
+    /**
+     * @return the name of the installed version.
+     */
+    private String installLoader(MrPack pack, InstallTransaction versions) throws IOException {
+        LoaderProfile loader = LoaderInstallers.resolve(pack.getDependencies());
+        String versionName = loader.getVersionName();
+        String versionPath = versionName + '/' + versionName + ".json";
+
+        if (!Files.exists(versions.getRoot().resolve(versionPath))) {
+            Path versionJson = versions.stage(versionPath);
+            Files.createDirectories(versionJson.getParent());
+            Util.copyFile(getLoaderProfile(loader), versionJson);
+        }
+
+        return versionName;
+    }
+
+    /**
+     * Gets a loader profile from the cache, fetching and processing it first if needed.
+     */
+    private Path getLoaderProfile(LoaderProfile loader) throws IOException {
+        Path cached = loaderProfiles.get(loader.getType(), loader.getGameVersion(), loader.getLoaderVersion());
+        if (cached != null)
+            return cached;
+
+        byte[] profile;
+        try (InputStream in = getActiveMirrors().open(loader.getUrl())) {
+            profile = loader.getInstaller().process(Util.readBytes(in));
+        }
+
+        return loaderProfiles.put(loader.getType(), loader.getGameVersion(), loader.getLoaderVersion(), profile);
+    }
+
+    /**
+     * Fetches the loader profile for every available game version ahead of time, a few at once, so that
+     * installs do not wait on the loader meta servers. Only the pack says which loader version it needs, so the
+     * packs are downloaded into the cache of the launcher dir, which is evicted afterwards like after an install.
+     * Failures are logged and skipped.
+     * @return the number of game versions whose loader profile is cached.
+     */
+    public int prefetchLoaderProfiles(Path launcherDir, ProgressConsumer progress) {
+        Path sharedDir = getDataDir(launcherDir);
+        DownloadCache cache = new DownloadCache(sharedDir.resolve("files"));
+        Mirrors mirrors = getActiveMirrors();
+        List<String> gameVersions = getAvailableGameVers();
+        ExecutorService executor = Executors.newFixedThreadPool(PREFETCH_THREADS, task -> {
+            Thread thread = new Thread(task, "prefetch");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        int cached = 0;
+        try (DataDirLock lock = DataDirLock.shared(sharedDir)) {
+            // game versions often share a pack, which must only be downloaded once
+            Map<ProjectVersion, Future<Path>> tasks = new HashMap<>();
+            List<Future<Path>> results = new ArrayList<>();
+            for (String gameVersion : gameVersions) {
+                results.add(tasks.computeIfAbsent(getModVerForGameVer(gameVersion), version -> executor.submit(() -> {
+                    MrPack pack = MrPack.read(downloadPack(getPrimaryFile(version), cache, mirrors), "client");
+                    return getLoaderProfile(LoaderInstallers.resolve(pack.getDependencies()));
+                })));
+            }
+
+            for (int i = 0; i < results.size(); i++) {
+                progress.update(tr("prefetching_loaders"), (float) i / results.size());
+                try {
+                    await(results.get(i));
+                    cached++;
+                } catch (InterruptedIOException e) {
+                    break;
+                } catch (IOException | RuntimeException e) {
+                    System.err.println("Could not prefetch the loader profile for " + gameVersions.get(i));
+                    e.printStackTrace();
+                }
+            }
+            progress.update(1);
+        } catch (IOException e) {
+            System.err.println("Could not lock " + sharedDir);
+            e.printStackTrace();
+        } finally {
+            executor.shutdownNow();
+        }
+        evictCache(sharedDir);
+        return cached;
+    }
+
+    /**
+     * Reports the progress of one of several parallel tasks, as its share of their combined progress.
+     * @param shares the progress of every task.
+     */
+    private static ProgressConsumer share(ProgressConsumer parent, float[] shares, int index) {
+        return new ProgressConsumer() {
+
+            @Override
+            public void update(String string, float progress) {
+                synchronized (shares) {
+                    shares[index] = Math.max(0, progress);
+                    float total = 0;
+                    for (float share : shares)
+                        total += share;
+                    parent.update(string, total / shares.length);
+                }
+            }
+
+            @Override
+            public void transferred(long bytes) {
+                parent.transferred(bytes);
+            }
+        };
+    }
+
+    /**
+     * Waits for every task, even once one of them has failed, so that none of them outlives the caller.
+     */
+    private static void awaitAll(List<Future<?>> futures) throws IOException {
+        Exception error = null;
+        for (Future<?> future : futures) {
+            try {
+                await(future);
+            } catch (IOException | RuntimeException e) {
+                if (error == null)
+                    error = e;
+                else
+                    error.addSuppressed(e);
+            }
+        }
+
+        if (error instanceof IOException)
+            throw (IOException) error;
+        if (error != null)
+            throw (RuntimeException) error;
+    }
+
+    private static <T> T await(Future<T> future) throws IOException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException)
+                throw (IOException) e.getCause();
+            if (e.getCause() instanceof RuntimeException)
+                throw (RuntimeException) e.getCause();
+            throw new IOException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        }
+    }
+
+    private static boolean isPresent(Path gameDir, MrFile file) {
+        try {
+            return Files.size(gameDir.resolve(file.getPath())) == file.getSize();
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static boolean isValid(Path gameDir, MrFile file) {
+        try {
+            return isPresent(gameDir, file)
+                    && Util.sha1(gameDir.resolve(file.getPath())).equalsIgnoreCase(file.getSha1());
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Deletes files from the previous install which are no longer part of the pack.
+     * Overrides are only deleted if they were not modified since they were extracted. A path which changed
+     * between being a mod and an override is left alone, since the file which owns it now replaces it.
+     */
+    private static void removeStale(InstallTransaction transaction, InstallManifest previous, Set<String> files,
+            Map<String, Long> overrides) throws IOException {
+        Path gameDir = transaction.getRoot();
+        for (String key : previous.getFiles().keySet())
+            if (!files.contains(key) && !overrides.containsKey(key))
+                transaction.delete(key);
+
+        for (Map.Entry<String, Long> entry : previous.getOverrides().entrySet()) {
+            if (overrides.containsKey(entry.getKey()) || files.contains(entry.getKey()))
+                continue;
+
+            Path path = Util.checkParent(gameDir, gameDir.resolve(entry.getKey()));
+            if (Files.isRegularFile(path) && Util.crc32(path) == entry.getValue())
+                transaction.delete(entry.getKey());
+        }
+    }
+
+    private static void registerInstances(Path dataDir, List<Path> gameDirs) {
+        try {
+            updateInstances(dataDir, instances -> {
+                for (Path gameDir : gameDirs)
+                    instances.put(gameDir.toAbsolutePath().normalize().toString(), new Date());
+                return instances;
+            });
+        } catch (IOException e) {
+            System.err.println("Could not record the installed game dirs");
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Deletes the shared files which are not used by any game dir installed to from this launcher dir. Waits for
+     * installs into the launcher dir to finish first, and holds off new ones until done.
+     * @return the number of bytes freed.
+     */
+    public static long collectGarbage(Path launcherDir) throws IOException {
+        Path dataDir = getDataDir(launcherDir);
+        try (DataDirLock lock = DataDirLock.exclusive(dataDir)) {
+            Set<String> referenced = new HashSet<>();
+            updateInstances(dataDir, instances -> {
+                JsonObject remaining = JsonObject.of();
+                instances.forEach((dir, value) -> {
+                    InstallManifest manifest = InstallManifest.read(Paths.get(dir));
+                    if (manifest == null)
+                        return;
+
+                    remaining.put(dir, value);
+                    manifest.getFiles().values().forEach(sha1 -> referenced.add(sha1.toLowerCase(Locale.ROOT)));
+                });
+                return remaining;
+            });
+
+            return new DownloadCache(dataDir.resolve("files")).collectGarbage(referenced);
+        }
+    }
+
+    /**
+     * Evicts old entries from the download cache of a data dir once nothing uses it. If another install is still
+     * running, it is left to evict them when it is done.
+     */
+    private static void evictCache(Path dataDir) {
+        try (DataDirLock lock = DataDirLock.tryExclusive(dataDir)) {
+            if (lock != null)
+                new DownloadCache(dataDir.resolve("files")).evict();
+        } catch (IOException e) {
+            System.err.println("Failed to evict old cache entries");
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Re-reads the installed game dirs and replaces them with the result of the update, under a lock shared with
+     * other installers.
+     */
+    private static void updateInstances(Path dataDir, UnaryOperator<JsonObject> update) throws IOException {
+        Files.createDirectories(dataDir);
+        Path file = dataDir.resolve(INSTANCES);
+        Path lockFile = dataDir.resolve(INSTANCES + LOCK_SUFFIX);
+        synchronized (INSTANCE_LOCKS.computeIfAbsent(lockFile.toAbsolutePath().normalize(), path -> new Object())) {
+            try (FileChannel channel = FileChannel.open(lockFile, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE); FileLock lock = channel.lock()) {
+                JsonObject instances = update.apply(readInstances(file));
+                Util.writeAtomically(file, out -> JsonSerializer.write(instances, out, StandardCharsets.UTF_8));
+            }
+        }
+    }
+
+    private static JsonObject readInstances(Path file) throws IOException {
+        if (!Files.isRegularFile(file))
+            return JsonObject.of();
+
+        try (InputStream in = Files.newInputStream(file)) {
+            return JsonDeserializer.read(in, StandardCharsets.UTF_8).asObject();
+        }
+    }
+
+    /**
+     * Gets the directory for data shared by all installs into a launcher directory.
+     */
+    public static Path getDataDir(Path launcherDir) {
+        return launcherDir.resolve(DATA_DIR);
     }
 
     public ProjectVersion getModVerForGameVer(String game) {
-        return modVerFromGameVer.get(game);
+        return catalog.getLatest(game, channel);
+    }
+
+    /**
+     * Gets the latest version in the followed channel for a game version, asking Modrinth for only that game
+     * version if the full list has not been loaded.
+     * @return the version, or <code>null</code> if there is none.
+     */
+    public ProjectVersion findModVerForGameVer(String game) throws IOException {
+        ProjectVersion version = getModVerForGameVer(game);
+        if (version != null)
+            return version;
+
+        return versionQuery().upTo(channel).gameVersions(game).fetchFirst();
     }
 
+    /**
+     * Gets the game versions with a version in the followed channel, newest first.
+     */
     public List<String> getAvailableGameVers() {
-        return availableGameVers;
+        return catalog.getGameVersions(channel);
+    }
+
+    /**
+     * Gets all loaded versions, for queries across channels and game version ranges.
+     */
+    public VersionCatalog getCatalog() {
+        return catalog;
+    }
+
+    public ReleaseChannel getChannel() {
+        return channel;
+    }
+
+    /**
+     * Sets the least stable channel to offer versions from. Defaults to {@link ReleaseChannel#RELEASE}.
+     */
+    public void setChannel(ReleaseChannel channel) {
+        this.channel = channel;
     }
 }
@@ -45,6 +45,7 @@ import javax.swing.JLabel;
 import javax.swing.JOptionPane;
 import javax.swing.JProgressBar;
 import javax.swing.JTextField;
+import javax.swing.SwingUtilities;
 import javax.swing.WindowConstants;
 
 import com.formdev.flatlaf.FlatDarkLaf;
@@ -83,6 +84,11 @@ public final class InstallerApp {
     private final JProgressBar progress = new JProgressBar(0, 100);
 
     public static void main(String[] args) {
+        if (InstallerCli.isHeadless(args)) {
+            InstallerCli.main(args);
+            return;
+        }
+
         if (DarkModeDetector.detect())
             FlatDarkLaf.setup();
         else
@@ -200,9 +206,28 @@ public final class InstallerApp {
             setProgressVisible(false);
             gameFolderDirty = false;
             setEnabled(true);
+
+            // the list may have come from the cache; pick up new versions without blocking startup
+            if (installer.refresh())
+                SwingUtilities.invokeLater(this::updateVersions);
         }).start();
     }
 
+    private void updateVersions() {
+        Object selected = minecraftVersionModel.getSelectedItem();
+        boolean dirty = gameFolderDirty;
+        // stop the item listener from touching the game folder while the model is empty
+        gameFolderDirty = true;
+        minecraftVersionModel.removeAllElements();
+        installer.getAvailableGameVers().forEach(item -> minecraftVersionModel.addElement(item));
+        if (selected != null && installer.getAvailableGameVers().contains(selected))
+            minecraftVersionModel.setSelectedItem(selected);
+
+        if (!dirty && minecraftVersionBox.getSelectedItem() != null)
+            gameFolderBox.setText(getGameFolder(minecraftVersionBox));
+        gameFolderDirty = dirty;
+    }
+
     private void setEnabled(boolean enabled) {
         minecraftVersionBox.setEnabled(enabled);
         gameFolderBox.setEnabled(enabled);
@@ -217,7 +242,9 @@ public final class InstallerApp {
                 Path gameDir = Paths.get(gameFolderBox.getText());
 
                 Path modsDir = gameDir.resolve("mods");
-                if (Files.isDirectory(modsDir) && (Files.list(modsDir).findAny().isPresent())) {
+                // an existing install will be updated in place
+                if (!InstallManifest.exists(gameDir) && Files.isDirectory(modsDir)
+                        && (Files.list(modsDir).findAny().isPresent())) {
                     int opt = JOptionPane.showConfirmDialog(frame, tr("mods_present"), tr("mods_present_title"),
                             JOptionPane.YES_NO_CANCEL_OPTION);
                     if (opt == JOptionPane.CANCEL_OPTION) {
@@ -248,8 +275,13 @@ public final class InstallerApp {
                 progress.setValue(0);
                 progress.setString("");
                 setProgressVisible(true);
-                installer.install(installer.getModVerForGameVer(minecraftVersionBox.getSelectedItem().toString()),
-                        Util.getDotMinecraft(), gameDir, ProgressConsumer.of(progress));
+                // the bar is only touched on the event dispatch thread, a few times a second at most
+                try (ThrottledProgress throttled = new ThrottledProgress(ProgressConsumer.of(progress),
+                        ThrottledProgress.DEFAULT_INTERVAL_MILLIS, true)) {
+                    installer.install(
+                            installer.getModVerForGameVer(minecraftVersionBox.getSelectedItem().toString()),
+                            Util.getDotMinecraft(), gameDir, throttled);
+                }
             } catch (Throwable e) {
                 System.err.println("Couldn't install");
                 e.printStackTrace();
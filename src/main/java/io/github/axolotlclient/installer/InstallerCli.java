@@ -0,0 +1,293 @@
+/*
+ * Copyright © 2023-2023 moehreag <moehreag@gmail.com>, TheKodeToad <TheKodeToad@proton.me> & Contributors
+ *
+ * This file is part of AxolotlClient Installer.
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ * For more information, see the LICENSE file.
+ */
+
+package io.github.axolotlclient.installer;
+
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import io.github.axolotlclient.installer.http.BundleTransport;
+import io.github.axolotlclient.installer.http.Http;
+import io.github.axolotlclient.installer.http.Mirrors;
+import io.github.axolotlclient.installer.modrinth.api.ProjectVersion;
+import io.github.axolotlclient.installer.modrinth.api.ReleaseChannel;
+import io.github.axolotlclient.installer.util.Util;
+
+/**
+ * Headless entry point for installing without a display, e.g. when provisioning many machines.
+ * <p>
+ * Everything meant for machines is printed to stdout as tab-separated lines:
+ * <pre>
+ * progress  &lt;0-100, or -1 if indeterminate&gt;  &lt;message&gt;
+ * installed &lt;game dir&gt;
+ * freed     &lt;bytes&gt;
+ * prefetched &lt;number of game versions&gt;
+ * exported  &lt;bundle&gt;
+ * error     &lt;message&gt;
+ * </pre>
+ */
+public final class InstallerCli {
+
+    private static final String USAGE = "Usage: --game-version <version> [--launcher-dir <dir>] --game-dir <dir>"
+            + " [--game-dir <dir>...] [--link] [--bundle <file or dir>] [--mirror <prefix>=<replacement>...]"
+            + " [--icon <launcher icon>]\n"
+            + "       --game-version <version> --export <file> [--launcher-dir <dir>]\n"
+            + "       --list [--bundle <file or dir>]\n"
+            + "       --channel <release|beta|alpha> may be added to any of the above\n"
+            + "       --gc [--launcher-dir <dir>]\n"
+            + "       --prefetch [--launcher-dir <dir>]\n"
+            + "       --cli or --headless may be given to use this mode without any other option";
+
+    // every option, so that arguments meant for something else do not switch to this mode, like the -psn_...
+    // argument macOS may pass to apps it launches
+    private static final Set<String> OPTIONS = new HashSet<>(Arrays.asList("--cli", "--headless", "--list",
+            "--link", "--gc", "--prefetch", "--game-version", "--launcher-dir", "--game-dir", "--export", "--bundle",
+            "--mirror", "--channel", "--icon"));
+
+    private final PrintStream out;
+    private String gameVersion;
+    private Path launcherDir = Util.getDotMinecraft();
+    private final List<Path> gameDirs = new ArrayList<>();
+    private boolean list;
+    private boolean link;
+    private boolean gc;
+    private boolean prefetch;
+    private Path export;
+    private Path bundle;
+    private String icon;
+    private ReleaseChannel channel = ReleaseChannel.RELEASE;
+    private final List<Mirrors.Rule> mirrors = new ArrayList<>();
+
+    InstallerCli(PrintStream out) {
+        this.out = out;
+    }
+
+    public static boolean isHeadless(String[] args) {
+        return Arrays.stream(args).anyMatch(OPTIONS::contains);
+    }
+
+    public static void main(String[] args) {
+        System.exit(new InstallerCli(System.out).run(args));
+    }
+
+    /**
+     * @return the exit code.
+     */
+    int run(String[] args) {
+        try {
+            parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            return 2;
+        }
+
+        Installer installer = new Installer(Installer.getDataDir(launcherDir));
+        installer.setChannel(channel);
+        installer.setMirrors(installer.getMirrors().with(mirrors));
+        try (BundleTransport bundleTransport = bundle != null ? new BundleTransport(bundle) : null) {
+            if (bundleTransport != null) {
+                Http.setTransport(bundleTransport);
+                // look the version up in the bundle's list rather than a cached one, and leave the cache alone
+                installer.loadUncached();
+            }
+
+            if (list) {
+                if (bundleTransport == null) {
+                    installer.load();
+                    installer.refresh();
+                }
+                // the bundle keeps the whole version list, but only one version's files
+                installer.getAvailableGameVers().stream().filter(game -> bundleTransport == null
+                        || isBundled(installer.getModVerForGameVer(game), bundleTransport)).forEach(out::println);
+                return 0;
+            }
+
+            if (prefetch) {
+                if (bundleTransport == null) {
+                    installer.load();
+                    installer.refresh();
+                }
+                int prefetched;
+                try (ThrottledProgress progress = new ThrottledProgress(new LineProgress(out))) {
+                    prefetched = installer.prefetchLoaderProfiles(launcherDir, progress);
+                }
+                out.println("prefetched\t" + prefetched);
+                return 0;
+            }
+
+            if (gc) {
+                out.println("freed\t" + Installer.collectGarbage(launcherDir));
+                return 0;
+            }
+
+            ProjectVersion version;
+            if (bundleTransport != null) {
+                version = installer.getModVerForGameVer(gameVersion);
+                if (!isBundled(version, bundleTransport)) {
+                    out.println("error\tThe bundle has no " + channel.name().toLowerCase(Locale.ROOT)
+                            + " version for Minecraft " + gameVersion + "; pass the --game-version and --channel it"
+                            + " was exported with");
+                    return 1;
+                }
+            } else
+                version = installer.findModVerForGameVer(gameVersion);
+            if (version == null) {
+                out.println("error\tNo release for Minecraft " + gameVersion);
+                return 1;
+            }
+
+            if (export != null) {
+                try (ThrottledProgress progress = new ThrottledProgress(new LineProgress(out))) {
+                    installer.exportBundle(version, launcherDir, export, progress);
+                }
+                out.println("exported\t" + export.toAbsolutePath());
+                return 0;
+            }
+
+            installer.setLinkFiles(link);
+            if (icon != null)
+                installer.setProfileIcon(icon);
+            try (ThrottledProgress progress = new ThrottledProgress(new LineProgress(out))) {
+                installer.install(version, launcherDir, gameDirs, progress);
+            }
+            gameDirs.forEach(dir -> out.println("installed\t" + dir.toAbsolutePath()));
+            return 0;
+        } catch (Exception e) {
+            e.printStackTrace();
+            out.println("error\t" + e);
+            return 1;
+        }
+    }
+
+    private void parse(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            switch (arg) {
+                case "--cli":
+                case "--headless":
+                    continue;
+                case "--list":
+                    list = true;
+                    continue;
+                case "--link":
+                    link = true;
+                    continue;
+                case "--gc":
+                    gc = true;
+                    continue;
+                case "--prefetch":
+                    prefetch = true;
+                    continue;
+                case "--game-version":
+                case "--launcher-dir":
+                case "--game-dir":
+                case "--export":
+                case "--bundle":
+                case "--mirror":
+                case "--channel":
+                case "--icon":
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown argument " + arg);
+            }
+
+            if (++i >= args.length)
+                throw new IllegalArgumentException("Missing value for " + arg);
+
+            String value = args[i];
+            if (arg.equals("--game-version"))
+                gameVersion = value;
+            else if (arg.equals("--launcher-dir"))
+                launcherDir = Paths.get(value);
+            else if (arg.equals("--export"))
+                export = Paths.get(value);
+            else if (arg.equals("--bundle"))
+                bundle = Paths.get(value);
+            else if (arg.equals("--mirror"))
+                mirrors.add(Mirrors.Rule.parse(value));
+            else if (arg.equals("--channel"))
+                channel = parseChannel(value);
+            else if (arg.equals("--icon"))
+                icon = value;
+            else
+                gameDirs.add(Paths.get(value));
+        }
+
+        if (export != null && gameVersion == null)
+            throw new IllegalArgumentException("--export requires --game-version");
+        if (!list && !gc && !prefetch && export == null && (gameVersion == null || gameDirs.isEmpty()))
+            throw new IllegalArgumentException("--game-version and at least one --game-dir are required");
+    }
+
+    /**
+     * Checks whether the pack of a version is in the bundle, rather than just listed in its version list.
+     */
+    private static boolean isBundled(ProjectVersion version, BundleTransport bundle) {
+        return version != null && version.getFiles().stream()
+                .anyMatch(file -> file.isPrimary() && bundle.contains(file.getUrl()));
+    }
+
+    private static ReleaseChannel parseChannel(String value) {
+        try {
+            return ReleaseChannel.parse(value);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown channel " + value);
+        }
+    }
+
+    /**
+     * Prints progress, skipping updates which would not change the printed line.
+     */
+    private static final class LineProgress implements ProgressConsumer {
+
+        private final PrintStream out;
+        private String message = "";
+        private int lastPercent = Integer.MIN_VALUE;
+        private String lastMessage;
+
+        LineProgress(PrintStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public synchronized void update(String string, float progress) {
+            if (string != null)
+                message = string;
+
+            int percent = progress < 0 ? -1 : Math.min(100, (int) (progress * 100));
+            if (percent == lastPercent && message.equals(lastMessage))
+                return;
+
+            lastPercent = percent;
+            lastMessage = message;
+            out.println("progress\t" + percent + '\t' + message);
+        }
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright © 2023-2023 moehreag <moehreag@gmail.com>, TheKodeToad <TheKodeToad@proton.me> & Contributors
+ *
+ * This file is part of AxolotlClient Installer.
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ * For more information, see the LICENSE file.
+ */
+
+package io.github.axolotlclient.installer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import io.github.axolotlclient.installer.util.Util;
+import io.toadlabs.jfgjds.JsonDeserializer;
+import io.toadlabs.jfgjds.JsonSerializer;
+import io.toadlabs.jfgjds.data.JsonObject;
+
+/**
+ * Adds profiles to the vanilla launcher's <code>launcher_profiles.json</code>. Profiles are collected and then
+ * written together: the file is re-read and merged under a lock shared with other installers, in this process
+ * and others, and replaced with a rename so that the launcher never sees it half written.
+ */
+public final class LauncherProfileStore {
+
+    public static final String FILE_NAME = "launcher_profiles.json";
+    private static final String LOCK_SUFFIX = ".lock";
+
+    // file locks are held by the whole process, so threads need to take turns themselves
+    private static final Map<Path, Object> LOCKS = new ConcurrentHashMap<>();
+
+    private final Path file;
+    private final String icon;
+    private final Map<String, JsonObject> pending = new LinkedHashMap<>();
+
+    /**
+     * @param icon the icon of added profiles: a data URL, or the name of one of the launcher's own icons, such
+     * as <code>Furnace</code>, which keeps the file small.
+     */
+    public LauncherProfileStore(Path launcherDir, String icon) {
+        this.file = launcherDir.resolve(FILE_NAME);
+        this.icon = icon;
+    }
+
+    /**
+     * Adds or replaces a profile when {@link #commit()} is called.
+     */
+    public void put(String id, String name, String versionName, Path gameDir) {
+        pending.put(id, JsonObject.of("lastUsed", new Date(), "lastVersionId", versionName, "name", name, "icon",
+                icon, "gameDir", gameDir.toAbsolutePath()));
+    }
+
+    /**
+     * Writes all profiles added since the last commit in one go.
+     */
+    public void commit() throws IOException {
+        if (pending.isEmpty())
+            return;
+
+        Files.createDirectories(file.getParent());
+        Path lockFile = file.resolveSibling(file.getFileName() + LOCK_SUFFIX);
+        synchronized (LOCKS.computeIfAbsent(lockFile.toAbsolutePath().normalize(), path -> new Object())) {
+            try (FileChannel channel = FileChannel.open(lockFile, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE); FileLock lock = channel.lock()) {
+                JsonObject profiles = read();
+                JsonObject profilesMap = profiles.computeIfAbsent("profiles", JsonObject.DEFAULT_COMPUTION)
+                        .asObject();
+                pending.forEach((id, profile) -> {
+                    // keep when the profile was first created
+                    profile.put("created", profilesMap.getOpt(id).flatMap(old -> old.asObject().getOpt("created"))
+                            .<Object>map(created -> created).orElseGet(Date::new));
+                    profilesMap.put(id, profile);
+                });
+                write(profiles);
+            }
+        }
+        pending.clear();
+    }
+
+    private JsonObject read() throws IOException {
+        if (Files.exists(file)) {
+            try (InputStream in = Files.newInputStream(file)) {
+                return JsonDeserializer.read(in, StandardCharsets.UTF_8).asObject();
+            } catch (IOException | RuntimeException e) {
+                // keep whatever the user had rather than overwriting it
+                Path backup = file.resolveSibling(file.getFileName() + ".bak");
+                System.err.println("Could not open profiles; moving them to " + backup);
+                e.printStackTrace();
+                Files.move(file, backup, StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+
+        return JsonObject.of("version", 3);
+    }
+
+    private void write(JsonObject profiles) throws IOException {
+        Util.writeAtomically(file, out -> JsonSerializer.write(profiles, out, StandardCharsets.UTF_8));
+    }
+}
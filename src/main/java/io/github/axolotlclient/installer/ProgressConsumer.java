@@ -23,11 +23,19 @@
 package io.github.axolotlclient.installer;
 
 import javax.swing.JProgressBar;
+import javax.swing.SwingUtilities;
 
 public interface ProgressConsumer {
 
+    ProgressConsumer NONE = (string, progress) -> {
+    };
+
+    /**
+     * Shows progress on a bar, updating it on the event dispatch thread. Every update is dispatched separately,
+     * so this should be wrapped in a {@link ThrottledProgress} when updates are frequent.
+     */
     static ProgressConsumer of(JProgressBar bar) {
-        return (string, progress) -> {
+        return (string, progress) -> SwingUtilities.invokeLater(() -> {
             if (progress == -1) {
                 bar.setValue(0);
                 bar.setIndeterminate(true);
@@ -38,11 +46,23 @@ public interface ProgressConsumer {
 
             if (string != null)
                 bar.setString(string);
-        };
+        });
     }
 
     default ProgressConsumer subprogress(float start, float end) {
-        return (string, progress) -> update(string, start + (end - start) * progress);
+        ProgressConsumer parent = this;
+        return new ProgressConsumer() {
+
+            @Override
+            public void update(String string, float progress) {
+                parent.update(string, start + (end - start) * progress);
+            }
+
+            @Override
+            public void transferred(long bytes) {
+                parent.transferred(bytes);
+            }
+        };
     }
 
     default void update(float progress) {
@@ -55,4 +75,11 @@ public interface ProgressConsumer {
      * @param progress the progress.
      */
     void update(String string, float progress);
+
+    /**
+     * Reports that more bytes were downloaded, for measuring the transfer rate. Wrappers which pass progress on
+     * should pass this on too.
+     */
+    default void transferred(long bytes) {
+    }
 }
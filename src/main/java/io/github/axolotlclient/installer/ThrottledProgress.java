@@ -0,0 +1,212 @@
+/*
+ * Copyright © 2023-2023 moehreag <moehreag@gmail.com>, TheKodeToad <TheKodeToad@proton.me> & Contributors
+ *
+ * This file is part of AxolotlClient Installer.
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ * For more information, see the LICENSE file.
+ */
+
+package io.github.axolotlclient.installer;
+
+import static io.github.axolotlclient.installer.util.Translate.tr;
+
+import java.io.Closeable;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects progress from any number of threads and passes it on at a fixed rate, so that a download loop can
+ * report every chunk without flooding the consumer. Updates between two samples are coalesced into the latest.
+ * <p>
+ * Also measures the transfer rate from {@link #transferred(long)} and estimates the time left from how fast the
+ * progress moves.
+ */
+public final class ThrottledProgress implements ProgressConsumer, Closeable {
+
+    public static final long DEFAULT_INTERVAL_MILLIS = 100;
+    private static final double SMOOTHING = 0.2;
+
+    private final ProgressConsumer target;
+    private final boolean showRate;
+    private final ScheduledExecutorService sampler;
+    private final LongAdder bytes = new LongAdder();
+
+    // the latest progress in the lower half and how often the message changed in the upper half, so that most
+    // updates allocate nothing; the message only changes under the lock, together with the count, so the sampler
+    // never pairs one update's message with an older update's progress
+    private final AtomicLong state = new AtomicLong(pack(0, 0));
+    private final Object messageLock = new Object();
+    private String message;
+
+    // only touched by the sampler
+    private long lastSample = System.nanoTime();
+    private long lastBytes;
+    private float lastProgress = -1;
+    private long lastState = state.get();
+    private String lastMessage;
+    private float lastSent = Float.NaN;
+    private volatile double bytesPerSecond;
+    private volatile double progressPerSecond;
+
+    public ThrottledProgress(ProgressConsumer target) {
+        this(target, DEFAULT_INTERVAL_MILLIS, false);
+    }
+
+    /**
+     * @param intervalMillis how often updates are passed on.
+     * @param showRate whether to append the transfer rate and time left to the message.
+     */
+    public ThrottledProgress(ProgressConsumer target, long intervalMillis, boolean showRate) {
+        this.target = target;
+        this.showRate = showRate;
+        sampler = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "progress-sampler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sampler.scheduleAtFixedRate(this::sample, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void update(String string, float progress) {
+        if (string != null) {
+            synchronized (messageLock) {
+                message = string;
+                long previous = state.get();
+                while (!state.compareAndSet(previous, pack((int) (previous >>> 32) + 1, progress)))
+                    previous = state.get();
+            }
+            return;
+        }
+
+        long previous = state.get();
+        while (!state.compareAndSet(previous, pack((int) (previous >>> 32), progress)))
+            previous = state.get();
+    }
+
+    @Override
+    public void transferred(long bytes) {
+        this.bytes.add(bytes);
+    }
+
+    /**
+     * @return the smoothed transfer rate, or 0 if nothing was transferred yet.
+     */
+    public double getBytesPerSecond() {
+        return bytesPerSecond;
+    }
+
+    /**
+     * @return the estimated seconds left, or -1 if there is no estimate.
+     */
+    public long getSecondsLeft() {
+        float current = getProgress(state.get());
+        double speed = progressPerSecond;
+        if (current < 0 || speed <= 0)
+            return -1;
+
+        return (long) Math.ceil((1 - current) / speed);
+    }
+
+    private synchronized void sample() {
+        long now = System.nanoTime();
+        double seconds = (now - lastSample) / 1e9;
+        lastSample = now;
+
+        long totalBytes = bytes.sum();
+        boolean transferred = totalBytes != lastBytes;
+        bytesPerSecond = smooth(bytesPerSecond, (totalBytes - lastBytes) / seconds);
+        lastBytes = totalBytes;
+
+        long latest;
+        String latestMessage;
+        synchronized (messageLock) {
+            latest = state.get();
+            latestMessage = message;
+        }
+        float current = getProgress(latest);
+        if (current >= 0 && lastProgress >= 0 && current >= lastProgress)
+            progressPerSecond = smooth(progressPerSecond, (current - lastProgress) / seconds);
+        else
+            progressPerSecond = 0;
+        lastProgress = current;
+
+        // the rate only moves while something is transferred
+        if (latest == lastState && !(showRate && transferred))
+            return;
+        lastState = latest;
+
+        String text = latestMessage;
+        if (showRate && text != null && current >= 0 && bytesPerSecond > 0)
+            text += ' ' + tr("transfer_rate", formatBytes(bytesPerSecond), formatTime(getSecondsLeft()));
+
+        boolean relabel = text != null && !text.equals(lastMessage);
+        if (!relabel && current == lastSent)
+            return;
+
+        // the message is only passed on when it changed, so consumers can skip relabelling
+        target.update(relabel ? text : null, current);
+        if (text != null)
+            lastMessage = text;
+        lastSent = current;
+    }
+
+    private static long pack(int generation, float progress) {
+        return (long) generation << 32 | Float.floatToIntBits(progress) & 0xFFFFFFFFL;
+    }
+
+    private static float getProgress(long state) {
+        return Float.intBitsToFloat((int) state);
+    }
+
+    private static double smooth(double average, double sample) {
+        return average <= 0 ? sample : average + SMOOTHING * (sample - average);
+    }
+
+    private static String formatBytes(double bytes) {
+        if (bytes < 1024)
+            return String.format(Locale.ROOT, "%.0f B", bytes);
+        if (bytes < 1024 * 1024)
+            return String.format(Locale.ROOT, "%.0f KB", bytes / 1024);
+        return String.format(Locale.ROOT, "%.1f MB", bytes / (1024 * 1024));
+    }
+
+    private static String formatTime(long seconds) {
+        if (seconds < 0)
+            return "?";
+        return String.format(Locale.ROOT, "%d:%02d", seconds / 60, seconds % 60);
+    }
+
+    /**
+     * Stops sampling after passing on the latest update.
+     */
+    @Override
+    public void close() {
+        sampler.shutdownNow();
+        try {
+            sampler.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        sample();
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright © 2023-2023 moehreag <moehreag@gmail.com>, TheKodeToad <TheKodeToad@proton.me> & Contributors
+ *
+ * This file is part of AxolotlClient Installer.
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ * For more information, see the LICENSE file.
+ */
+
+package io.github.axolotlclient.installer.http;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import io.github.axolotlclient.installer.util.Util;
+import io.toadlabs.jfgjds.JsonDeserializer;
+
+/**
+ * Serves everything an install needs from a bundle written by {@link BundleWriter}, without a network.
+ * The bundle may be the archive itself or a directory it was extracted to, e.g. on a network share.
+ * URLs which are not in the bundle are answered with 404.
+ */
+public final class BundleTransport implements HttpTransport, Closeable {
+
+    static final String INDEX = "bundle.json";
+    static final String FILES = "files/";
+    static final int FORMAT_VERSION = 1;
+
+    private final Path dir;
+    private final ZipFile zip;
+    // url -> entry name
+    private final Map<String, String> urls = new HashMap<>();
+
+    public BundleTransport(Path bundle) throws IOException {
+        if (Files.isDirectory(bundle)) {
+            dir = bundle;
+            zip = null;
+        } else {
+            dir = null;
+            zip = new ZipFile(bundle.toFile());
+        }
+
+        try (InputStream in = open(INDEX)) {
+            if (in == null)
+                throw new IOException("Not an install bundle: " + bundle);
+
+            JsonDeserializer.read(in, StandardCharsets.UTF_8).asObject().get("urls").asObject()
+                    .forEach((url, entry) -> urls.put(url, entry.getStringValue()));
+        } catch (IOException | RuntimeException e) {
+            close();
+            throw e;
+        }
+    }
+
+    /**
+     * Checks whether a URL is served from the bundle.
+     */
+    public boolean contains(String url) {
+        return urls.containsKey(url);
+    }
+
+    @Override
+    public HttpResponse send(HttpRequest request) throws IOException {
+        String entry = urls.get(request.getUrl().toString());
+        InputStream in = entry != null ? open(entry) : null;
+        // ranges are not supported, so resumed downloads simply start over
+        return in != null ? new Response(200, in) : new Response(404, new ByteArrayInputStream(new byte[0]));
+    }
+
+    private InputStream open(String entry) throws IOException {
+        if (zip != null) {
+            ZipEntry zipEntry = zip.getEntry(entry);
+            return zipEntry != null ? zip.getInputStream(zipEntry) : null;
+        }
+
+        Path path = Util.checkParent(dir, dir.resolve(entry));
+        return Files.isRegularFile(path) ? Files.newInputStream(path) : null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (zip != null)
+            zip.close();
+    }
+
+    private static final class Response implements HttpResponse {
+
+        private final int status;
+        private final InputStream body;
+
+        Response(int status, InputStream body) {
+            this.status = status;
+            this.body = body;
+        }
+
+        @Override
+        public int getStatus() {
+            return status;
+        }
+
+        @Override
+        public String getHeader(String name) {
+            return null;
+        }
+
+        @Override
+        public InputStream getBody() {
+            return body;
+        }
+
+        @Override
+        public void close() throws IOException {
+            body.close();
+        }
+    }
+}
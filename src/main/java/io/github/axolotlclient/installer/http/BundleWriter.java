@@ -0,0 +1,96 @@
+/*
+ * Copyright © 2023-2023 moehreag <moehreag@gmail.com>, TheKodeToad <TheKodeToad@proton.me> & Contributors
+ *
+ * This file is part of AxolotlClient Installer.
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ * For more information, see the LICENSE file.
+ */
+
+package io.github.axolotlclient.installer.http;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import io.github.axolotlclient.installer.util.Util;
+import io.toadlabs.jfgjds.JsonSerializer;
+import io.toadlabs.jfgjds.data.JsonObject;
+
+/**
+ * Writes the responses an install needs into a single archive, to be served by {@link BundleTransport}.
+ * Each file is stored once under its SHA-1, however many URLs point at it.
+ */
+public final class BundleWriter implements Closeable {
+
+    private final ZipOutputStream out;
+    private final JsonObject urls = JsonObject.of();
+    private final Set<String> entries = new HashSet<>();
+
+    public BundleWriter(Path file) throws IOException {
+        out = new ZipOutputStream(Files.newOutputStream(file));
+    }
+
+    /**
+     * Adds a file which is served for all the given URLs.
+     */
+    public synchronized void add(Collection<String> urls, Path file) throws IOException {
+        String entry = BundleTransport.FILES + Util.sha1(file);
+        if (entries.add(entry)) {
+            // mods are already compressed, and stored entries can be read at disk speed
+            long size = Files.size(file);
+            ZipEntry zipEntry = new ZipEntry(entry);
+            zipEntry.setMethod(ZipEntry.STORED);
+            zipEntry.setSize(size);
+            zipEntry.setCompressedSize(size);
+            zipEntry.setCrc(Util.crc32(file));
+            out.putNextEntry(zipEntry);
+            try (InputStream in = Files.newInputStream(file)) {
+                Util.copy(in, out);
+            }
+            out.closeEntry();
+        }
+
+        for (String url : urls)
+            this.urls.put(url, entry);
+    }
+
+    /**
+     * Writes the index and finishes the archive.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        try (OutputStream ignored = out) {
+            ByteArrayOutputStream index = new ByteArrayOutputStream();
+            JsonSerializer.write(JsonObject.of("formatVersion", BundleTransport.FORMAT_VERSION, "urls", urls), index,
+                    StandardCharsets.UTF_8);
+
+            out.putNextEntry(new ZipEntry(BundleTransport.INDEX));
+            index.writeTo(out);
+            out.closeEntry();
+        }
+    }
+}
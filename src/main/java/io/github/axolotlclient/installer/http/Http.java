@@ -0,0 +1,53 @@
+/*
+ * Copyright © 2023-2023 moehreag <moehreag@gmail.com>, TheKodeToad <TheKodeToad@proton.me> & Contributors
+ *
+ * This file is part of AxolotlClient Installer.
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ * For more information, see the LICENSE file.
+ */
+
+package io.github.axolotlclient.installer.http;
+
+import java.io.IOException;
+import java.net.URL;
+
+/**
+ * Holds the transport used for all requests made by the installer.
+ */
+public final class Http {
+
+    private static volatile HttpTransport transport = new RetryingTransport(new UrlConnectionTransport());
+
+    public static HttpTransport getTransport() {
+        return transport;
+    }
+
+    public static void setTransport(HttpTransport transport) {
+        Http.transport = transport;
+    }
+
+    /**
+     * Sends a request, throwing if it was not successful.
+     */
+    public static HttpResponse send(HttpRequest request) throws IOException {
+        return transport.send(request).checkStatus(request);
+    }
+
+    public static HttpResponse get(URL url) throws IOException {
+        return send(new HttpRequest(url));
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright © 2023-2023 moehreag <moehreag@gmail.com>, TheKodeToad <TheKodeToad@proton.me> & Contributors
+ *
+ * This file is part of AxolotlClient Installer.
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ * For more information, see the LICENSE file.
+ */
+
+package io.github.axolotlclient.installer.http;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import io.github.axolotlclient.installer.util.Util;
+import io.toadlabs.jfgjds.JsonDeserializer;
+import io.toadlabs.jfgjds.JsonSerializer;
+import io.toadlabs.jfgjds.data.JsonObject;
+import io.toadlabs.jfgjds.data.JsonValue;
+
+/**
+ * Persists response bodies together with their validators, so that they can be served while offline and
+ * revalidated with conditional requests.
+ */
+public final class HttpCache {
+
+    private final Path dir;
+
+    public HttpCache(Path dir) {
+        this.dir = dir;
+    }
+
+    /**
+     * Gets the cached body of a URL, however old it is.
+     * @return the body, or <code>null</code> if the URL has never been fetched.
+     */
+    public Path get(URL url) {
+        Path body = getBodyPath(url);
+        return Files.isRegularFile(body) ? body : null;
+    }
+
+    /**
+     * Fetches a URL, sending the stored validators so that an unchanged body is not transferred again.
+     * @return <code>true</code> if the body changed.
+     */
+    public boolean revalidate(URL url) throws IOException {
+        Path body = getBodyPath(url);
+        Path meta = getMetaPath(url);
+        JsonObject previous = Files.isRegularFile(body) ? readMeta(meta) : null;
+
+        HttpRequest request = new HttpRequest(url);
+        if (previous != null) {
+            previous.getOpt("etag").map(JsonValue::getStringValue)
+                    .ifPresent(etag -> request.header("If-None-Match", etag));
+            previous.getOpt("lastModified").map(JsonValue::getStringValue)
+                    .ifPresent(lastModified -> request.header("If-Modified-Since", lastModified));
+        }
+
+        try (HttpResponse response = Http.getTransport().send(request)) {
+            if (previous != null && response.getStatus() == 304)
+                return false;
+
+            response.checkStatus(request);
+            Files.createDirectories(dir);
+            try (InputStream in = response.getBody()) {
+                Util.writeAtomically(body, out -> Util.copy(in, out));
+            }
+
+            JsonObject obj = JsonObject.of("url", url.toString());
+            String etag = response.getHeader("ETag");
+            String lastModified = response.getHeader("Last-Modified");
+            if (etag != null)
+                obj.put("etag", etag);
+            if (lastModified != null)
+                obj.put("lastModified", lastModified);
+
+            Util.writeAtomically(meta, out -> JsonSerializer.write(obj, out, StandardCharsets.UTF_8));
+            return true;
+        }
+    }
+
+    private Path getBodyPath(URL url) {
+        return dir.resolve(key(url));
+    }
+
+    private Path getMetaPath(URL url) {
+        return dir.resolve(key(url) + ".json");
+    }
+
+    private static String key(URL url) {
+        return Util.toHex(Util.sha1().digest(url.toString().getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static JsonObject readMeta(Path meta) {
+        if (!Files.isRegularFile(meta))
+            return null;
+
+        try (InputStream in = Files.newInputStream(meta)) {
+            return JsonDeserializer.read(in, StandardCharsets.UTF_8).asObject();
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+}
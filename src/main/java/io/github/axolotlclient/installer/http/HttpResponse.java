@@ -0,0 +1,59 @@
+/*
+ * Copyright © 2023-2023 moehreag <moehreag@gmail.com>, TheKodeToad <TheKodeToad@proton.me> & Contributors
+ *
+ * This file is part of AxolotlClient Installer.
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ * For more information, see the LICENSE file.
+ */
+
+package io.github.axolotlclient.installer.http;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+
+public interface HttpResponse extends Closeable {
+
+    int getStatus();
+
+    /**
+     * Gets a response header, ignoring case.
+     * @return the value, or <code>null</code> if it is not present.
+     */
+    String getHeader(String name);
+
+    /**
+     * Gets the body. Closing it closes the response.
+     */
+    InputStream getBody() throws IOException;
+
+    default boolean isSuccessful() {
+        return getStatus() >= 200 && getStatus() < 300;
+    }
+
+    /**
+     * Throws if the status does not indicate success.
+     * @return this response.
+     */
+    default HttpResponse checkStatus(HttpRequest request) throws IOException {
+        if (!isSuccessful()) {
+            close();
+            throw new HttpStatusException(request.getUrl(), getStatus());
+        }
+        return this;
+    }
+}
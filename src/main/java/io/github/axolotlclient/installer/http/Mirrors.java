@@ -0,0 +1,256 @@
+/*
+ * Copyright © 2023-2023 moehreag <moehreag@gmail.com>, TheKodeToad <TheKodeToad@proton.me> & Contributors
+ *
+ * This file is part of AxolotlClient Installer.
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ * For more information, see the LICENSE file.
+ */
+
+package io.github.axolotlclient.installer.http;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import io.toadlabs.jfgjds.JsonDeserializer;
+import io.toadlabs.jfgjds.data.JsonObject;
+import io.toadlabs.jfgjds.data.JsonValue;
+
+/**
+ * Rewrites download URLs to mirrors and ranks the candidates by how fast their hosts have been so far.
+ * <p>
+ * A rule replaces a URL prefix, which covers redirecting a whole host
+ * (<code>https://cdn.modrinth.com/</code> to <code>https://mirror.lan/modrinth/</code>) as well as prepending a
+ * caching proxy (<code>https://</code> to <code>http://proxy.lan/https://</code>). Unless a rule says otherwise,
+ * the original URL is kept as a fallback after the mirror.
+ */
+public final class Mirrors {
+
+    private static final double SMOOTHING = 0.3;
+    // what a failed request counts as, so that a broken mirror sinks below the working ones
+    private static final long FAILURE_PENALTY = TimeUnit.SECONDS.toNanos(30);
+
+    private final List<Rule> rules;
+    private final Map<String, Stats> stats = new ConcurrentHashMap<>();
+
+    public Mirrors(List<Rule> rules) {
+        this.rules = Collections.unmodifiableList(new ArrayList<>(rules));
+    }
+
+    /**
+     * Reads the rules from a file of the form
+     * <code>{"rules": [{"prefix": "...", "replacement": "...", "keepOriginal": true}]}</code>.
+     */
+    public static Mirrors read(Path file) throws IOException {
+        List<Rule> rules = new ArrayList<>();
+        try (InputStream in = Files.newInputStream(file)) {
+            JsonDeserializer.read(in, StandardCharsets.UTF_8).asObject().get("rules").asArray().forEach(value -> {
+                JsonObject rule = value.asObject();
+                rules.add(new Rule(rule.get("prefix").getStringValue(), rule.get("replacement").getStringValue(),
+                        rule.getOpt("keepOriginal").map(JsonValue::getBooleanValue).orElse(true)));
+            });
+        }
+        return new Mirrors(rules);
+    }
+
+    public List<Rule> getRules() {
+        return rules;
+    }
+
+    /**
+     * @return a copy with more rules added after these.
+     */
+    public Mirrors with(List<Rule> more) {
+        List<Rule> combined = new ArrayList<>(rules);
+        combined.addAll(more);
+        return new Mirrors(combined);
+    }
+
+    /**
+     * Applies the rules to a URL.
+     * @return the URLs to try, in the order the rules give them.
+     */
+    public List<String> rewrite(String url) {
+        List<String> result = new ArrayList<>();
+        boolean keepOriginal = true;
+        for (Rule rule : rules) {
+            if (!url.startsWith(rule.prefix))
+                continue;
+
+            result.add(rule.replacement + url.substring(rule.prefix.length()));
+            keepOriginal &= rule.keepOriginal;
+        }
+
+        if (keepOriginal)
+            result.add(url);
+        return result;
+    }
+
+    /**
+     * Rewrites the URLs of a file and ranks them, fastest first. Hosts which have not been measured yet are
+     * assumed to be as fast as the fastest one, so the original order decides between them.
+     * @param size the size of the file, to weigh latency against throughput.
+     */
+    public List<URL> candidates(List<String> urls, long size) throws MalformedURLException {
+        Set<String> rewritten = new LinkedHashSet<>();
+        for (String url : urls)
+            rewritten.addAll(rewrite(url));
+
+        List<URL> result = new ArrayList<>(rewritten.size());
+        for (String url : rewritten)
+            result.add(new URL(url));
+
+        // other downloads keep updating the stats, so the sort works on a snapshot which cannot change under it
+        Map<String, Double> costs = new HashMap<>();
+        double best = Double.MAX_VALUE;
+        for (URL url : result) {
+            Stats hostStats = stats.get(getKey(url));
+            if (hostStats != null) {
+                double cost = hostStats.cost(size);
+                costs.put(getKey(url), cost);
+                best = Math.min(best, cost);
+            }
+        }
+
+        if (best != Double.MAX_VALUE) {
+            double unmeasured = best;
+            // the sort is stable, so ties keep the original order
+            result.sort(Comparator.comparingDouble(url -> costs.getOrDefault(getKey(url), unmeasured)));
+        }
+        return result;
+    }
+
+    /**
+     * Records a successful download.
+     * @param latency the nanoseconds until the first byte arrived.
+     * @param bytes the number of bytes transferred.
+     * @param elapsed the nanoseconds the whole download took.
+     */
+    public void recordSuccess(URL url, long latency, long bytes, long elapsed) {
+        stats.computeIfAbsent(getKey(url), key -> new Stats()).record(latency, bytes, elapsed);
+    }
+
+    public void recordFailure(URL url) {
+        stats.computeIfAbsent(getKey(url), key -> new Stats()).record(FAILURE_PENALTY, 0, FAILURE_PENALTY);
+    }
+
+    /**
+     * Opens the first candidate for a URL which responds successfully.
+     */
+    public InputStream open(URL url) throws IOException {
+        IOException lastError = null;
+        for (URL candidate : candidates(Collections.singletonList(url.toString()), 0)) {
+            long start = System.nanoTime();
+            try {
+                HttpResponse response = Http.get(candidate);
+                recordSuccess(candidate, System.nanoTime() - start, 0, System.nanoTime() - start);
+                return response.getBody();
+            } catch (InterruptedIOException e) {
+                throw e;
+            } catch (IOException e) {
+                recordFailure(candidate);
+                if (lastError != null)
+                    e.addSuppressed(lastError);
+                lastError = e;
+            }
+        }
+        throw lastError != null ? lastError : new IOException("Every mirror for " + url + " is excluded");
+    }
+
+    private static String getKey(URL url) {
+        return url.getProtocol() + "://" + url.getAuthority();
+    }
+
+    public static final class Rule {
+
+        private final String prefix;
+        private final String replacement;
+        private final boolean keepOriginal;
+
+        public Rule(String prefix, String replacement, boolean keepOriginal) {
+            this.prefix = prefix;
+            this.replacement = replacement;
+            this.keepOriginal = keepOriginal;
+        }
+
+        /**
+         * Parses a rule of the form <code>prefix=replacement</code>, which keeps the original URL.
+         */
+        public static Rule parse(String rule) {
+            int separator = rule.indexOf('=');
+            if (separator <= 0)
+                throw new IllegalArgumentException("Expected <prefix>=<replacement>: " + rule);
+
+            return new Rule(rule.substring(0, separator), rule.substring(separator + 1), true);
+        }
+
+        public String getPrefix() {
+            return prefix;
+        }
+
+        public String getReplacement() {
+            return replacement;
+        }
+
+        public boolean isKeepOriginal() {
+            return keepOriginal;
+        }
+    }
+
+    /**
+     * Moving averages of a host's latency and throughput.
+     */
+    private static final class Stats {
+
+        private double latency = -1;
+        // bytes per nanosecond
+        private double throughput = -1;
+
+        synchronized void record(long latency, long bytes, long elapsed) {
+            this.latency = this.latency < 0 ? latency : this.latency + SMOOTHING * (latency - this.latency);
+
+            long transfer = elapsed - latency;
+            if (bytes <= 0 || transfer <= 0)
+                return;
+
+            double sample = (double) bytes / transfer;
+            throughput = throughput < 0 ? sample : throughput + SMOOTHING * (sample - throughput);
+        }
+
+        /**
+         * Estimates how many nanoseconds fetching a file of this size would take.
+         */
+        synchronized double cost(long size) {
+            return latency + (throughput > 0 ? size / throughput : 0);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright © 2023-2023 moehreag <moehreag@gmail.com>, TheKodeToad <TheKodeToad@proton.me> & Contributors
+ *
+ * This file is part of AxolotlClient Installer.
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ * For more information, see the LICENSE file.
+ */
+
+package io.github.axolotlclient.installer.http;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Retries requests which failed to connect or were answered with 429 or a 5xx status, using exponential backoff
+ * with full jitter. A <code>Retry-After</code> header takes precedence over the computed delay.
+ */
+public final class RetryingTransport implements HttpTransport {
+
+    public static final int DEFAULT_ATTEMPTS = 4;
+    public static final long DEFAULT_BASE_DELAY = 500;
+    public static final long DEFAULT_MAX_DELAY = 30_000;
+
+    private final HttpTransport delegate;
+    private final int attempts;
+    private final long baseDelay;
+    private final long maxDelay;
+
+    public RetryingTransport(HttpTransport delegate) {
+        this(delegate, DEFAULT_ATTEMPTS, DEFAULT_BASE_DELAY, DEFAULT_MAX_DELAY);
+    }
+
+    /**
+     * @param attempts the maximum number of times a request is sent.
+     * @param baseDelay the delay in milliseconds before the first retry, doubled for each one after.
+     * @param maxDelay the maximum delay in milliseconds.
+     */
+    public RetryingTransport(HttpTransport delegate, int attempts, long baseDelay, long maxDelay) {
+        this.delegate = delegate;
+        this.attempts = attempts;
+        this.baseDelay = baseDelay;
+        this.maxDelay = maxDelay;
+    }
+
+    @Override
+    public HttpResponse send(HttpRequest request) throws IOException {
+        for (int attempt = 1;; attempt++) {
+            long delay = backoff(attempt);
+            try {
+                HttpResponse response = delegate.send(request);
+                if (!isRetryable(response.getStatus()) || attempt >= attempts)
+                    return response;
+
+                Long retryAfter = parseRetryAfter(response.getHeader("Retry-After"));
+                response.close();
+                if (retryAfter != null)
+                    delay = Math.min(maxDelay, retryAfter);
+            } catch (InterruptedIOException e) {
+                // includes timeouts, which are worth retrying unless the thread itself was interrupted
+                if (Thread.currentThread().isInterrupted() || attempt >= attempts)
+                    throw e;
+            } catch (IOException e) {
+                if (attempt >= attempts)
+                    throw e;
+            }
+
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting to retry " + request);
+            }
+        }
+    }
+
+    private long backoff(int attempt) {
+        long cap = Math.min(maxDelay, baseDelay << Math.min(attempt - 1, 20));
+        return ThreadLocalRandom.current().nextLong(cap + 1);
+    }
+
+    private static boolean isRetryable(int status) {
+        return status == 429 || (status >= 500 && status < 600 && status != 501);
+    }
+
+    /**
+     * @return the delay in milliseconds, or <code>null</code> if the header is absent or invalid.
+     */
+    static Long parseRetryAfter(String value) {
+        if (value == null)
+            return null;
+
+        value = value.trim();
+        try {
+            return Math.max(0, Long.parseLong(value) * 1000);
+        } catch (NumberFormatException ignored) {
+        }
+
+        try {
+            SimpleDateFormat format = new SimpleDateFormat("EEE, dd MMM yyyy HH:mm:ss zzz", Locale.US);
+            return Math.max(0, format.parse(value).getTime() - System.currentTimeMillis());
+        } catch (ParseException e) {
+            return null;
+        }
+    }
+}
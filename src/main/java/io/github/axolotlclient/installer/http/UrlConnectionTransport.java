@@ -0,0 +1,155 @@
+/*
+ * Copyright © 2023-2023 moehreag <moehreag@gmail.com>, TheKodeToad <TheKodeToad@proton.me> & Contributors
+ *
+ * This file is part of AxolotlClient Installer.
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ * For more information, see the LICENSE file.
+ */
+
+package io.github.axolotlclient.installer.http;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URLConnection;
+import java.util.zip.GZIPInputStream;
+
+import io.github.axolotlclient.installer.util.Util;
+
+/**
+ * The default transport, backed by {@link URLConnection}. The JDK keeps HTTP connections alive and reuses them as
+ * long as each response is closed.
+ */
+public final class UrlConnectionTransport implements HttpTransport {
+
+    public static final int DEFAULT_CONNECT_TIMEOUT = 10_000;
+    public static final int DEFAULT_READ_TIMEOUT = 30_000;
+
+    static {
+        // the default of 5 idle connections per host is less than the number of concurrent downloads
+        if (System.getProperty("http.maxConnections") == null)
+            System.setProperty("http.maxConnections", "16");
+    }
+
+    private final int connectTimeout;
+    private final int readTimeout;
+
+    public UrlConnectionTransport() {
+        this(DEFAULT_CONNECT_TIMEOUT, DEFAULT_READ_TIMEOUT);
+    }
+
+    /**
+     * @param connectTimeout the connect timeout in milliseconds.
+     * @param readTimeout the maximum time in milliseconds to wait for data before giving up.
+     */
+    public UrlConnectionTransport(int connectTimeout, int readTimeout) {
+        this.connectTimeout = connectTimeout;
+        this.readTimeout = readTimeout;
+    }
+
+    @Override
+    public HttpResponse send(HttpRequest request) throws IOException {
+        URLConnection connection = request.getUrl().openConnection();
+        connection.setConnectTimeout(connectTimeout);
+        connection.setReadTimeout(readTimeout);
+        connection.setRequestProperty("User-Agent", Util.USER_AGENT);
+        // compressing a range would make the offsets refer to the compressed stream
+        if (request.getHeader("Range") == null)
+            connection.setRequestProperty("Accept-Encoding", "gzip");
+        request.getHeaders().forEach(connection::setRequestProperty);
+
+        if (!(connection instanceof HttpURLConnection))
+            return new Response(connection, 200);
+
+        HttpURLConnection http = (HttpURLConnection) connection;
+        http.setInstanceFollowRedirects(true);
+        return new Response(http, http.getResponseCode());
+    }
+
+    private static final class Response implements HttpResponse {
+
+        private final URLConnection connection;
+        private final int status;
+        private InputStream raw;
+        private InputStream body;
+        private boolean closed;
+
+        Response(URLConnection connection, int status) {
+            this.connection = connection;
+            this.status = status;
+        }
+
+        @Override
+        public int getStatus() {
+            return status;
+        }
+
+        @Override
+        public String getHeader(String name) {
+            return connection.getHeaderField(name);
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            if (body != null)
+                return body;
+
+            InputStream in = openRaw();
+            if ("gzip".equalsIgnoreCase(connection.getContentEncoding()))
+                in = new GZIPInputStream(in);
+
+            body = new FilterInputStream(in) {
+                @Override
+                public void close() throws IOException {
+                    super.close();
+                    Response.this.close();
+                }
+            };
+            return body;
+        }
+
+        private InputStream openRaw() throws IOException {
+            if (raw != null)
+                return raw;
+
+            if (connection instanceof HttpURLConnection && !isSuccessful()) {
+                raw = ((HttpURLConnection) connection).getErrorStream();
+                if (raw == null)
+                    raw = new ByteArrayInputStream(new byte[0]);
+            } else
+                raw = connection.getInputStream();
+
+            return raw;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed)
+                return;
+
+            closed = true;
+            // the JDK only returns the connection to the keep-alive pool once its stream is closed,
+            // and it reads out the rest of a small body by itself
+            try {
+                openRaw().close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright © 2023-2023 moehreag <moehreag@gmail.com>, TheKodeToad <TheKodeToad@proton.me> & Contributors
+ *
+ * This file is part of AxolotlClient Installer.
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ * For more information, see the LICENSE file.
+ */
+
+package io.github.axolotlclient.installer.loader;
+
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+
+/**
+ * Installs a mod loader into the vanilla launcher by providing its version profile. Implementations are found
+ * through {@link LoaderInstallers}, which includes those registered with {@link java.util.ServiceLoader}.
+ */
+public interface LoaderInstaller {
+
+    /**
+     * Gets the name profiles are cached under. It must change whenever {@link #process(byte[])} does.
+     */
+    String getType();
+
+    /**
+     * Gets the pack dependency naming the loader and its version, e.g. <code>fabric-loader</code>.
+     */
+    String getDependency();
+
+    /**
+     * Checks whether this can install the loader for a game version. Among the installers for a dependency,
+     * the one with the highest {@link #getPriority() priority} which supports the game version is used.
+     */
+    default boolean supports(String gameVersion) {
+        return true;
+    }
+
+    default int getPriority() {
+        return 0;
+    }
+
+    /**
+     * Gets the name of the installed version, which is also the name of its directory.
+     */
+    default String getVersionName(String gameVersion, String loaderVersion) {
+        return getDependency() + '-' + loaderVersion + '-' + gameVersion;
+    }
+
+    URL getProfileUrl(String gameVersion, String loaderVersion) throws MalformedURLException;
+
+    /**
+     * Fixes up a fetched profile before it is cached and installed. Applying it twice must do no harm, since
+     * profiles in bundles have already been processed.
+     */
+    default byte[] process(byte[] profile) throws IOException {
+        return profile;
+    }
+
+    default LoaderProfile resolve(String gameVersion, String loaderVersion) throws MalformedURLException {
+        return new LoaderProfile(this, gameVersion, loaderVersion, getVersionName(gameVersion, loaderVersion),
+                getProfileUrl(gameVersion, loaderVersion));
+    }
+}
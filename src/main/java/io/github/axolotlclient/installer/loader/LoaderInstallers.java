@@ -0,0 +1,89 @@
+/*
+ * Copyright © 2023-2023 moehreag <moehreag@gmail.com>, TheKodeToad <TheKodeToad@proton.me> & Contributors
+ *
+ * This file is part of AxolotlClient Installer.
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ * For more information, see the LICENSE file.
+ */
+
+package io.github.axolotlclient.installer.loader;
+
+import java.net.MalformedURLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+
+/**
+ * The known loader installers: the built-in ones, those registered with {@link ServiceLoader} and those added
+ * with {@link #register(LoaderInstaller)}.
+ */
+public final class LoaderInstallers {
+
+    // highest priority first
+    private static volatile List<LoaderInstaller> installers = sort(load());
+
+    private static List<LoaderInstaller> load() {
+        List<LoaderInstaller> result = new ArrayList<>();
+        result.add(new QuiltLoaderInstaller());
+        result.add(new FabricLoaderInstaller());
+        result.add(new OrnitheLoaderInstaller());
+        result.add(new CombatSnapshotLoaderInstaller());
+
+        try {
+            for (LoaderInstaller installer : ServiceLoader.load(LoaderInstaller.class))
+                result.add(installer);
+        } catch (ServiceConfigurationError e) {
+            System.err.println("Failed to load loader installers");
+            e.printStackTrace();
+        }
+        return result;
+    }
+
+    private static List<LoaderInstaller> sort(List<LoaderInstaller> list) {
+        list.sort(Comparator.comparingInt(LoaderInstaller::getPriority).reversed());
+        return list;
+    }
+
+    public static List<LoaderInstaller> getAll() {
+        return installers;
+    }
+
+    public static synchronized void register(LoaderInstaller installer) {
+        List<LoaderInstaller> copy = new ArrayList<>(installers);
+        copy.add(installer);
+        installers = sort(copy);
+    }
+
+    /**
+     * Resolves the loader a pack depends on.
+     * @param dependencies the pack's dependencies, including <code>minecraft</code>.
+     * @throws UnsupportedOperationException if no installer supports the loader.
+     */
+    public static LoaderProfile resolve(Map<String, String> dependencies) throws MalformedURLException {
+        String gameVersion = dependencies.get("minecraft");
+        for (LoaderInstaller installer : installers) {
+            String loaderVersion = dependencies.get(installer.getDependency());
+            if (loaderVersion != null && installer.supports(gameVersion))
+                return installer.resolve(gameVersion, loaderVersion);
+        }
+
+        throw new UnsupportedOperationException("Cannot find supported mod loader!");
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright © 2023-2023 moehreag <moehreag@gmail.com>, TheKodeToad <TheKodeToad@proton.me> & Contributors
+ *
+ * This file is part of AxolotlClient Installer.
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ * For more information, see the LICENSE file.
+ */
+
+package io.github.axolotlclient.installer.loader;
+
+import java.net.URL;
+
+/**
+ * A loader version resolved for a game version, i.e. everything needed to fetch and install its profile.
+ */
+public final class LoaderProfile {
+
+    private final LoaderInstaller installer;
+    private final String gameVersion;
+    private final String loaderVersion;
+    private final String versionName;
+    private final URL url;
+
+    public LoaderProfile(LoaderInstaller installer, String gameVersion, String loaderVersion, String versionName,
+            URL url) {
+        this.installer = installer;
+        this.gameVersion = gameVersion;
+        this.loaderVersion = loaderVersion;
+        this.versionName = versionName;
+        this.url = url;
+    }
+
+    public LoaderInstaller getInstaller() {
+        return installer;
+    }
+
+    public String getType() {
+        return installer.getType();
+    }
+
+    public String getGameVersion() {
+        return gameVersion;
+    }
+
+    public String getLoaderVersion() {
+        return loaderVersion;
+    }
+
+    public String getVersionName() {
+        return versionName;
+    }
+
+    public URL getUrl() {
+        return url;
+    }
+}
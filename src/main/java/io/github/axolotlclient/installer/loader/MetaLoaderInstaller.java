@@ -0,0 +1,61 @@
+/*
+ * Copyright © 2023-2023 moehreag <moehreag@gmail.com>, TheKodeToad <TheKodeToad@proton.me> & Contributors
+ *
+ * This file is part of AxolotlClient Installer.
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ * For more information, see the LICENSE file.
+ */
+
+package io.github.axolotlclient.installer.loader;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+
+/**
+ * A loader whose profiles are served by a meta server at a URL formatted with the game and loader versions.
+ */
+public abstract class MetaLoaderInstaller implements LoaderInstaller {
+
+    private final String type;
+    private final String dependency;
+    private final String profileUrl;
+
+    /**
+     * @param profileUrl the profile URL, with <code>%1$s</code> for the game version and <code>%2$s</code> for
+     * the loader version.
+     */
+    protected MetaLoaderInstaller(String type, String dependency, String profileUrl) {
+        this.type = type;
+        this.dependency = dependency;
+        this.profileUrl = profileUrl;
+    }
+
+    @Override
+    public String getType() {
+        return type;
+    }
+
+    @Override
+    public String getDependency() {
+        return dependency;
+    }
+
+    @Override
+    public URL getProfileUrl(String gameVersion, String loaderVersion) throws MalformedURLException {
+        return new URL(String.format(profileUrl, gameVersion, loaderVersion));
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright © 2023-2023 moehreag <moehreag@gmail.com>, TheKodeToad <TheKodeToad@proton.me> & Contributors
+ *
+ * This file is part of AxolotlClient Installer.
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ * For more information, see the LICENSE file.
+ */
+
+package io.github.axolotlclient.installer.loader;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import io.github.axolotlclient.installer.util.MinecraftVersion;
+import io.toadlabs.jfgjds.JsonDeserializer;
+import io.toadlabs.jfgjds.JsonSerializer;
+import io.toadlabs.jfgjds.data.JsonObject;
+
+/**
+ * Fabric for legacy versions, from Ornithe's gen1 intermediary. Its profiles inherit from
+ * <code>&lt;version&gt;-vanilla</code>, which the vanilla launcher does not know.
+ */
+public final class OrnitheLoaderInstaller extends MetaLoaderInstaller {
+
+    // alpha and beta are served by Ornithe as well
+    private static final MinecraftVersion MIN = MinecraftVersion.parse("a1.0");
+    private static final MinecraftVersion MAX = MinecraftVersion.parse("1.13.2");
+    private static final String VANILLA_SUFFIX = "-vanilla";
+
+    public OrnitheLoaderInstaller() {
+        super("ornithe-gen1", "fabric-loader",
+                "https://meta.ornithemc.net/v3/versions/fabric-loader/%s/%s/profile/json");
+    }
+
+    /**
+     * Heuristic for legacy fabric, version range: ([a1.0;1.13.2]) (both ends inclusive).
+     */
+    @Override
+    public boolean supports(String gameVersion) {
+        return MinecraftVersion.parse(gameVersion).isBetween(MIN, MAX);
+    }
+
+    @Override
+    public int getPriority() {
+        return 10;
+    }
+
+    @Override
+    public String getVersionName(String gameVersion, String loaderVersion) {
+        return super.getVersionName(gameVersion, loaderVersion) + "-ornithe-gen1";
+    }
+
+    @Override
+    public byte[] process(byte[] profile) throws IOException {
+        JsonObject versionObj = JsonDeserializer.read(new ByteArrayInputStream(profile), StandardCharsets.UTF_8)
+                .asObject();
+        if (!versionObj.contains("inheritsFrom"))
+            return profile;
+
+        String inheritsFrom = versionObj.get("inheritsFrom").getStringValue();
+        if (!inheritsFrom.endsWith(VANILLA_SUFFIX))
+            return profile;
+
+        versionObj.put("inheritsFrom", inheritsFrom.substring(0, inheritsFrom.length() - VANILLA_SUFFIX.length()));
+        ByteArrayOutputStream out = new ByteArrayOutputStream(profile.length);
+        JsonSerializer.write(versionObj, out, StandardCharsets.UTF_8);
+        return out.toByteArray();
+    }
+}
@@ -22,23 +22,85 @@
 
 package io.github.axolotlclient.installer.modrinth.api;
 
+import java.io.IOException;
+
+import io.github.axolotlclient.installer.util.JsonReader;
 import io.toadlabs.jfgjds.data.JsonObject;
 import io.toadlabs.jfgjds.data.JsonValue;
 
 public class ProjectFile {
 
     private final String url;
+    private final String sha1;
+    private final int size;
     private final boolean primary;
 
     public ProjectFile(JsonObject obj) {
         this.url = obj.get("url").getStringValue();
+        this.sha1 = obj.get("hashes").asObject().get("sha1").getStringValue();
+        this.size = obj.get("size").getIntNumberValue();
         this.primary = obj.getOpt("primary").map(JsonValue::getBooleanValue).orElse(false);
     }
 
+    ProjectFile(String url, String sha1, int size, boolean primary) {
+        this.url = url;
+        this.sha1 = sha1;
+        this.size = size;
+        this.primary = primary;
+    }
+
+    static ProjectFile read(JsonReader reader) throws IOException {
+        String url = null;
+        String sha1 = null;
+        int size = 0;
+        boolean primary = false;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "url":
+                    url = reader.nextString();
+                    break;
+                case "hashes":
+                    reader.beginObject();
+                    while (reader.hasNext()) {
+                        if (reader.nextName().equals("sha1"))
+                            sha1 = reader.nextString();
+                        else
+                            reader.skipValue();
+                    }
+                    reader.endObject();
+                    break;
+                case "size":
+                    size = reader.nextInt();
+                    break;
+                case "primary":
+                    primary = reader.nextBoolean();
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        if (url == null || sha1 == null)
+            throw new IOException("File is missing url or sha1");
+
+        return new ProjectFile(url, sha1, size, primary);
+    }
+
     public String getUrl() {
         return url;
     }
 
+    public String getSha1() {
+        return sha1;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
     public boolean isPrimary() {
         return primary;
     }
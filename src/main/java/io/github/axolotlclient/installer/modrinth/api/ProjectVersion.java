@@ -24,30 +24,108 @@ package io.github.axolotlclient.installer.modrinth.api;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.net.URL;
+import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
-import io.github.axolotlclient.installer.util.Util;
-import io.toadlabs.jfgjds.JsonDeserializer;
+import io.github.axolotlclient.installer.util.JsonReader;
 import io.toadlabs.jfgjds.data.JsonObject;
 import io.toadlabs.jfgjds.data.JsonValue;
 
 public class ProjectVersion {
 
-    private static final String URL_FORMAT = "https://api.modrinth.com/v2/project/%s/version";
-
     private final List<String> gameVersions;
     private final List<ProjectFile> files;
     private final ReleaseChannel versionType;
 
     public static List<ProjectVersion> getFeatured(String slug) throws IOException {
-        URL url = new URL(String.format(URL_FORMAT, slug));
-        try (InputStream in = Util.openStream(url)) {
-            return JsonDeserializer.read(in, StandardCharsets.UTF_8).asArray().stream().map(JsonValue::asObject)
-                    .map(ProjectVersion::new).collect(Collectors.toList());
+        return query(slug).fetch();
+    }
+
+    public static VersionQuery query(String slug) {
+        return new VersionQuery(slug);
+    }
+
+    /**
+     * Reads a version list as returned by the API.
+     */
+    public static List<ProjectVersion> read(InputStream in) throws IOException {
+        return read(in, channel -> true);
+    }
+
+    /**
+     * Reads a version list as returned by the API as it streams in, without building a tree of it.
+     * Only the fields this class needs are kept.
+     * @param channels the release channels to keep.
+     */
+    public static List<ProjectVersion> read(InputStream in, Predicate<ReleaseChannel> channels) throws IOException {
+        List<ProjectVersion> result = new ArrayList<>();
+        JsonReader reader = new JsonReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        reader.beginArray();
+        while (reader.hasNext()) {
+            ProjectVersion version = read(reader, channels);
+            if (version != null)
+                result.add(version);
+        }
+        reader.endArray();
+        return result;
+    }
+
+    /**
+     * @return the version, or <code>null</code> if it is not in one of the given channels.
+     */
+    static ProjectVersion read(JsonReader reader, Predicate<ReleaseChannel> channels) throws IOException {
+        List<String> gameVersions = Collections.emptyList();
+        List<ProjectFile> files = Collections.emptyList();
+        ReleaseChannel versionType = null;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            // once the channel is known to be unwanted, skip straight to the next version
+            if (versionType != null && !channels.test(versionType)) {
+                reader.nextName();
+                reader.skipValue();
+                continue;
+            }
+
+            switch (reader.nextName()) {
+                case "game_versions":
+                    gameVersions = new ArrayList<>();
+                    reader.beginArray();
+                    while (reader.hasNext())
+                        gameVersions.add(reader.nextString());
+                    reader.endArray();
+                    break;
+                case "files":
+                    files = new ArrayList<>();
+                    reader.beginArray();
+                    while (reader.hasNext())
+                        files.add(ProjectFile.read(reader));
+                    reader.endArray();
+                    break;
+                case "version_type":
+                    versionType = ReleaseChannel.parse(reader.nextString());
+                    break;
+                default:
+                    reader.skipValue();
+            }
         }
+        reader.endObject();
+
+        if (versionType == null)
+            throw new IOException("Version is missing version_type");
+
+        return channels.test(versionType) ? new ProjectVersion(gameVersions, files, versionType) : null;
+    }
+
+    ProjectVersion(List<String> gameVersions, List<ProjectFile> files, ReleaseChannel versionType) {
+        this.gameVersions = gameVersions;
+        this.files = files;
+        this.versionType = versionType;
     }
 
     public ProjectVersion(JsonObject obj) {
@@ -20,4 +20,12 @@ public enum ReleaseChannel {
         throw new IllegalArgumentException(value);
     }
 
+    /**
+     * Checks whether someone following this channel is offered versions from another one, i.e. whether the
+     * other one is at least as stable.
+     */
+    public boolean includes(ReleaseChannel other) {
+        return other.ordinal() <= ordinal();
+    }
+
 }
@@ -0,0 +1,104 @@
+/*
+ * Copyright © 2023-2023 moehreag <moehreag@gmail.com>, TheKodeToad <TheKodeToad@proton.me> & Contributors
+ *
+ * This file is part of AxolotlClient Installer.
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ * For more information, see the LICENSE file.
+ */
+
+package io.github.axolotlclient.installer.modrinth.api;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import io.github.axolotlclient.installer.util.MinecraftVersion;
+
+/**
+ * The versions of a project indexed by game version, newest game version last. There is an index for each
+ * release channel, which also contains the more stable channels, so that following the beta channel gives the
+ * newest release or beta.
+ */
+public final class VersionCatalog {
+
+    public static final VersionCatalog EMPTY = new VersionCatalog(Collections.emptyList());
+
+    private final Map<ReleaseChannel, NavigableMap<MinecraftVersion, ProjectVersion>> latest =
+            new EnumMap<>(ReleaseChannel.class);
+    private final Map<ReleaseChannel, List<String>> gameVersions = new EnumMap<>(ReleaseChannel.class);
+
+    /**
+     * @param versions the versions, newest first, as returned by the API.
+     */
+    public VersionCatalog(List<ProjectVersion> versions) {
+        for (ReleaseChannel channel : ReleaseChannel.values()) {
+            NavigableMap<MinecraftVersion, ProjectVersion> index = new TreeMap<>();
+            for (ProjectVersion version : versions)
+                if (channel.includes(version.getVersionType()))
+                    for (String gameVersion : version.getGameVersions())
+                        index.putIfAbsent(MinecraftVersion.parse(gameVersion), version);
+
+            latest.put(channel, Collections.unmodifiableNavigableMap(index));
+            gameVersions.put(channel, Collections.unmodifiableList(index.descendingKeySet().stream()
+                    .map(MinecraftVersion::getName).collect(Collectors.toList())));
+        }
+    }
+
+    /**
+     * Gets the newest version for a game version.
+     * @return the version, or <code>null</code> if there is none.
+     */
+    public ProjectVersion getLatest(String gameVersion, ReleaseChannel channel) {
+        return latest.get(channel).get(MinecraftVersion.parse(gameVersion));
+    }
+
+    /**
+     * Gets the game versions which have a version in a channel, newest first.
+     */
+    public List<String> getGameVersions(ReleaseChannel channel) {
+        return gameVersions.get(channel);
+    }
+
+    /**
+     * Gets the newest version for each game version in a range, both ends inclusive.
+     */
+    public NavigableMap<MinecraftVersion, ProjectVersion> getRange(String min, String max, ReleaseChannel channel) {
+        MinecraftVersion from = MinecraftVersion.parse(min);
+        MinecraftVersion to = MinecraftVersion.parse(max);
+        if (from.compareTo(to) > 0)
+            return Collections.emptyNavigableMap();
+
+        return latest.get(channel).subMap(from, true, to, true);
+    }
+
+    /**
+     * Gets the newest game version in a range, both ends inclusive, and its newest version.
+     * @return the entry, or <code>null</code> if no game version in the range has a version.
+     */
+    public Map.Entry<MinecraftVersion, ProjectVersion> getLatestInRange(String min, String max,
+            ReleaseChannel channel) {
+        return getRange(min, max, channel).lastEntry();
+    }
+
+    public boolean isEmpty() {
+        return latest.get(ReleaseChannel.ALPHA).isEmpty();
+    }
+}
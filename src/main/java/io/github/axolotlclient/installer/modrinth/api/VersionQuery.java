@@ -0,0 +1,200 @@
+/*
+ * Copyright © 2023-2023 moehreag <moehreag@gmail.com>, TheKodeToad <TheKodeToad@proton.me> & Contributors
+ *
+ * This file is part of AxolotlClient Installer.
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ * For more information, see the LICENSE file.
+ */
+
+package io.github.axolotlclient.installer.modrinth.api;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.io.UnsupportedEncodingException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import io.github.axolotlclient.installer.util.JsonReader;
+import io.github.axolotlclient.installer.util.Util;
+
+/**
+ * Builds a filtered request for the versions of a project. The loader, game version and featured filters are
+ * applied by Modrinth; the release channel filter is applied while the response is being read, since the API
+ * does not support it.
+ */
+public final class VersionQuery {
+
+    private static final String URL_FORMAT = "https://api.modrinth.com/v2/project/%s/version";
+
+    private final String slug;
+    private Boolean featured;
+    private List<String> loaders = Collections.emptyList();
+    private List<String> gameVersions = Collections.emptyList();
+    private Set<ReleaseChannel> channels = EnumSet.allOf(ReleaseChannel.class);
+    private boolean includeChangelog;
+
+    public VersionQuery(String slug) {
+        this.slug = slug;
+    }
+
+    /**
+     * @return this query.
+     */
+    public VersionQuery featured(boolean featured) {
+        this.featured = featured;
+        return this;
+    }
+
+    /**
+     * @return this query.
+     */
+    public VersionQuery loaders(String... loaders) {
+        this.loaders = Arrays.asList(loaders);
+        return this;
+    }
+
+    /**
+     * @return this query.
+     */
+    public VersionQuery gameVersions(String... gameVersions) {
+        this.gameVersions = Arrays.asList(gameVersions);
+        return this;
+    }
+
+    /**
+     * @return this query.
+     */
+    public VersionQuery channels(ReleaseChannel first, ReleaseChannel... rest) {
+        this.channels = EnumSet.of(first, rest);
+        return this;
+    }
+
+    /**
+     * Keeps the versions which someone following a channel is offered.
+     * @return this query.
+     */
+    public VersionQuery upTo(ReleaseChannel channel) {
+        this.channels = EnumSet.range(ReleaseChannel.RELEASE, channel);
+        return this;
+    }
+
+    /**
+     * Changelogs are left out by default, as they make up most of the response.
+     * @return this query.
+     */
+    public VersionQuery includeChangelog(boolean includeChangelog) {
+        this.includeChangelog = includeChangelog;
+        return this;
+    }
+
+    public URL toUrl() throws MalformedURLException {
+        List<String> params = new ArrayList<>();
+        if (featured != null)
+            params.add("featured=" + featured);
+        if (!loaders.isEmpty())
+            params.add("loaders=" + encode(loaders));
+        if (!gameVersions.isEmpty())
+            params.add("game_versions=" + encode(gameVersions));
+        params.add("include_changelog=" + includeChangelog);
+
+        return new URL(String.format(URL_FORMAT, slug) + '?' + String.join("&", params));
+    }
+
+    public List<ProjectVersion> fetch() throws IOException {
+        try (InputStream in = Util.openStream(toUrl())) {
+            return ProjectVersion.read(in, channels::contains);
+        }
+    }
+
+    /**
+     * Fetches the newest matching version, without reading the rest of the response.
+     * @return the version, or <code>null</code> if none match.
+     */
+    public ProjectVersion fetchFirst() throws IOException {
+        try (InputStream in = Util.openStream(toUrl())) {
+            JsonReader reader = new JsonReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            reader.beginArray();
+            while (reader.hasNext()) {
+                ProjectVersion version = ProjectVersion.read(reader, channels::contains);
+                if (version != null)
+                    return version;
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Lazily fetches the matching versions one game version at a time, so that iteration can stop as soon as
+     * enough has been seen. The version list endpoint has no offset or limit, so game versions are the pages.
+     * @return an iterator whose <code>next</code> may throw {@link UncheckedIOException}.
+     */
+    public Iterator<List<ProjectVersion>> pages(List<String> gameVersions) {
+        Iterator<String> iterator = gameVersions.iterator();
+        return new Iterator<List<ProjectVersion>>() {
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public List<ProjectVersion> next() {
+                if (!hasNext())
+                    throw new NoSuchElementException();
+
+                try {
+                    return copy().gameVersions(iterator.next()).fetch();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+    }
+
+    private VersionQuery copy() {
+        VersionQuery copy = new VersionQuery(slug);
+        copy.featured = featured;
+        copy.loaders = loaders;
+        copy.gameVersions = gameVersions;
+        copy.channels = EnumSet.copyOf(channels);
+        copy.includeChangelog = includeChangelog;
+        return copy;
+    }
+
+    private static String encode(List<String> values) {
+        String json = values.stream().map(value -> '"' + value.replace("\\", "\\\\").replace("\"", "\\\"") + '"')
+                .collect(Collectors.joining(",", "[", "]"));
+        try {
+            return URLEncoder.encode(json, StandardCharsets.UTF_8.name());
+        } catch (UnsupportedEncodingException e) {
+            // UTF-8 is always supported
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,520 @@
+/*
+ * Copyright © 2023-2023 moehreag <moehreag@gmail.com>, TheKodeToad <TheKodeToad@proton.me> & Contributors
+ *
+ * This file is part of AxolotlClient Installer.
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ * For more information, see the LICENSE file.
+ */
+
+package io.github.axolotlclient.installer.modrinth.pack;
+
+import static io.github.axolotlclient.installer.util.Translate.tr;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import io.github.axolotlclient.installer.ProgressConsumer;
+import io.github.axolotlclient.installer.http.Mirrors;
+import io.github.axolotlclient.installer.util.DownloadCache;
+import io.github.axolotlclient.installer.util.ResumableDownload;
+import io.github.axolotlclient.installer.util.Util;
+
+/**
+ * Downloads pack files using a bounded worker pool. The pool and the per-host limits belong to the downloader,
+ * so one downloader shared by several concurrent {@link #downloadAll} calls keeps all of them within the limits.
+ * <p>
+ * When a transfer is too slow, the next URL is raced against it and whichever verified download finishes first
+ * is kept, so one trickling mirror cannot hold up the whole install.
+ */
+public final class MrDownloader {
+
+    public static final int DEFAULT_THREADS = 6;
+    public static final int DEFAULT_PER_HOST = 4;
+    private static final int ATTEMPTS = 2;
+    // a transfer slower than this is raced against the next URL
+    private static final long HEDGE_MIN_RATE = 64 * 1024;
+    private static final long HEDGE_GRACE = TimeUnit.SECONDS.toNanos(3);
+    private static final long HEDGE_CHECK_MILLIS = 1000;
+    private static final int MAX_RACERS = 3;
+    private static final long IDLE_SECONDS = 10;
+    private static final AtomicInteger RACER_ID = new AtomicInteger();
+    private static final ExecutorService RACERS = Executors.newCachedThreadPool(task -> {
+        Thread thread = new Thread(task, "mod-download-racer-" + RACER_ID.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+    // cache entries being downloaded in this process, so that two installs never write the same partial file
+    private static final Map<Path, Object> FETCHES = new ConcurrentHashMap<>();
+
+    private final int perHost;
+    private final ExecutorService executor;
+    private final Map<String, Semaphore> hostPermits = new ConcurrentHashMap<>();
+    private DownloadCache cache;
+    private boolean link;
+    private Mirrors mirrors = new Mirrors(Collections.emptyList());
+
+    public MrDownloader() {
+        this(DEFAULT_THREADS, DEFAULT_PER_HOST);
+    }
+
+    /**
+     * @param threads the maximum number of files downloaded at once.
+     * @param perHost the maximum number of connections to a single host.
+     */
+    public MrDownloader(int threads, int perHost) {
+        if (threads < 1 || perHost < 1)
+            throw new IllegalArgumentException("threads and perHost must be positive");
+
+        this.perHost = perHost;
+
+        AtomicInteger threadId = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, IDLE_SECONDS, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), task -> {
+                    Thread thread = new Thread(task, "mod-download-" + threadId.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        // the downloader has no lifecycle, so idle workers go away on their own
+        executor.allowCoreThreadTimeOut(true);
+        this.executor = executor;
+    }
+
+    /**
+     * Sets the cache which files are downloaded into and then copied or linked from, so that files which have
+     * been downloaded before are not downloaded again.
+     * @param cache the cache, or <code>null</code> to always download straight to the target.
+     */
+    public void setCache(DownloadCache cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * Sets whether files are hard linked to the cache rather than copied, so that every game dir shares one copy.
+     */
+    public void setLink(boolean link) {
+        this.link = link;
+    }
+
+    /**
+     * Sets the mirrors which download URLs are rewritten to and ranked by. Defaults to none.
+     */
+    public void setMirrors(Mirrors mirrors) {
+        this.mirrors = mirrors;
+    }
+
+    /**
+     * Downloads all files, continuing past failures.
+     * @return the failed files and their errors, in the order of <code>files</code>.
+     */
+    public Map<MrFile, IOException> downloadAll(Path base, List<MrFile> files, ProgressConsumer progress) {
+        Map<MrFile, IOException> failures = new LinkedHashMap<>();
+        if (files.isEmpty())
+            return failures;
+
+        long total = Math.max(1, files.stream().mapToLong(MrFile::getSize).sum());
+        AggregateProgress aggregate = new AggregateProgress(progress, total, files.size());
+
+        List<Future<?>> futures = new ArrayList<>(files.size());
+        try {
+            for (MrFile file : files)
+                futures.add(executor.submit(() -> {
+                    download(file, base, aggregate.file(file));
+                    aggregate.complete();
+                    return null;
+                }));
+
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    futures.get(i).get();
+                } catch (ExecutionException e) {
+                    failures.put(files.get(i), e.getCause() instanceof IOException ? (IOException) e.getCause()
+                            : new IOException(e.getCause()));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    failures.put(files.get(i), new InterruptedIOException());
+                }
+            }
+        } finally {
+            // only does anything if this call was interrupted; the pool is shared with other calls
+            for (Future<?> future : futures)
+                future.cancel(true);
+        }
+
+        if (!failures.isEmpty()) {
+            System.err.printf("Failed to download %d of %d files:%n", failures.size(), files.size());
+            failures.forEach((file, error) -> System.err.printf("  %s: %s%n", file.getPath(), error));
+        }
+
+        return failures;
+    }
+
+    public void download(MrFile file, Path base, ProgressConsumer progress) throws IOException {
+        Path target = Util.checkParent(base, base.resolve(file.getPath()));
+        if (isValid(file, target)) {
+            progress.update(1);
+            return;
+        }
+
+        if (cache == null) {
+            fetch(file, target, progress);
+            return;
+        }
+
+        // downloaded into the cache rather than the target, whose directory may be thrown away, so that an
+        // interrupted download can be resumed by the next install
+        Path cached = cache.getPath(file.getSha1());
+        synchronized (FETCHES.computeIfAbsent(cached, key -> new Object())) {
+            if (!place(file, target)) {
+                fetch(file, cached, progress);
+                if (!place(file, target))
+                    throw new IOException("Cached " + file.getPath() + " disappeared before it could be used");
+            }
+        }
+        progress.update(1);
+    }
+
+    /**
+     * Links or copies a file from the cache.
+     * @return <code>false</code> if the file is not cached.
+     */
+    private boolean place(MrFile file, Path target) throws IOException {
+        return link ? cache.linkTo(file.getSha1(), target) : cache.copyTo(file.getSha1(), target);
+    }
+
+    private void fetch(MrFile file, Path target, ProgressConsumer progress) throws IOException {
+        IOException lastError = null;
+        for (int attempt = 0; attempt < ATTEMPTS; attempt++) {
+            // ranked again on each attempt, since the failures will have been measured
+            try {
+                race(file, target, mirrors.candidates(file.getUrls(), file.getSize()), progress);
+                return;
+            } catch (InterruptedIOException e) {
+                throw e;
+            } catch (IOException error) {
+                lastError = error;
+            }
+        }
+
+        throw new IOException("All urls from " + file.getUrls() + " could not be downloaded", lastError);
+    }
+
+    /**
+     * Downloads from the URLs in turn, starting the next one early if every running transfer is too slow.
+     */
+    private void race(MrFile file, Path target, List<URL> urls, ProgressConsumer progress) throws IOException {
+        if (urls.isEmpty())
+            throw new IOException("No urls for " + file.getPath());
+
+        BlockingQueue<Racer> finished = new LinkedBlockingQueue<>();
+        List<Racer> started = new ArrayList<>();
+        List<Racer> running = new ArrayList<>();
+        // racers report the furthest any of them got, so the bar never moves back
+        float[] furthest = new float[1];
+        ProgressConsumer shared = (string, value) -> {
+            synchronized (furthest) {
+                if (value < furthest[0])
+                    return;
+                furthest[0] = value;
+                progress.update(string, value);
+            }
+        };
+
+        Racer winner = null;
+        IOException lastError = null;
+        try {
+            while (winner == null) {
+                boolean slow = false;
+                if (!running.isEmpty()) {
+                    Racer done = finished.poll(HEDGE_CHECK_MILLIS, TimeUnit.MILLISECONDS);
+                    if (done != null) {
+                        running.remove(done);
+                        if (done.error == null) {
+                            winner = done;
+                            continue;
+                        }
+
+                        System.err.printf("URL %s failed; trying next one%n", done.url);
+                        done.error.printStackTrace();
+                        if (lastError != null)
+                            done.error.addSuppressed(lastError);
+                        lastError = done.error;
+                    } else if (running.size() < MAX_RACERS) {
+                        // every racer has to be sampled, so that none of them is left measuring a stale window
+                        List<Boolean> samples = running.stream().map(Racer::isSlow).collect(Collectors.toList());
+                        slow = !samples.contains(false);
+                    }
+                }
+
+                if ((running.isEmpty() || slow) && started.size() < urls.size()) {
+                    URL url = urls.get(started.size());
+                    if (slow)
+                        System.err.printf("Downloading %s is slow; racing %s%n", file.getPath(), url);
+
+                    // the first racer writes to the target itself so that it can resume
+                    Path racerTarget = started.isEmpty() ? target
+                            : target.resolveSibling(target.getFileName() + ".racer" + started.size());
+                    Racer racer = new Racer(file, url, racerTarget);
+                    started.add(racer);
+                    running.add(racer);
+                    RACERS.execute(() -> racer.run(finished, shared));
+                } else if (running.isEmpty())
+                    throw lastError;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        } finally {
+            for (Racer racer : started)
+                if (racer != winner)
+                    racer.cancel();
+            for (Racer racer : started) {
+                if (racer == winner)
+                    continue;
+
+                // the partial download at the target itself is kept for the next attempt to resume, unless
+                // another racer's file is about to replace it
+                if (racer.target == target && winner == null)
+                    racer.awaitStopped();
+                else
+                    // a loser stuck in a read only notices the cancellation once data arrives, which the winner
+                    // must not wait for
+                    RACERS.execute(() -> {
+                        racer.awaitStopped();
+                        racer.discard(target);
+                    });
+            }
+        }
+
+        if (winner.target != target)
+            Util.moveAtomically(winner.target, target);
+    }
+
+    private void downloadFrom(URL url, MrFile file, Path target, ProgressConsumer progress) throws IOException {
+        Semaphore permits = hostPermits.computeIfAbsent(url.getHost(), host -> new Semaphore(perHost));
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for " + url.getHost());
+        }
+
+        long start = System.nanoTime();
+        long[] firstByte = new long[1];
+        float[] last = new float[1];
+        try {
+            ResumableDownload.download(url, target, file.getSha1(), file.getSize(), (string, value) -> {
+                if (firstByte[0] == 0)
+                    firstByte[0] = System.nanoTime();
+                last[0] = value;
+                progress.update(string, value);
+            });
+            long end = System.nanoTime();
+            mirrors.recordSuccess(url, (firstByte[0] != 0 ? firstByte[0] : end) - start, file.getSize(), end - start);
+        } catch (CancellationException e) {
+            // lost a race; what it managed so far still says how fast the host is
+            long end = System.nanoTime();
+            mirrors.recordSuccess(url, (firstByte[0] != 0 ? firstByte[0] : end) - start,
+                    (long) (file.getSize() * last[0]), end - start);
+            throw e;
+        } catch (InterruptedIOException e) {
+            throw e;
+        } catch (IOException e) {
+            mirrors.recordFailure(url);
+            throw e;
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Checks whether a file is already present with the expected contents.
+     */
+    private static boolean isValid(MrFile file, Path target) {
+        try {
+            return Files.isRegularFile(target) && Files.size(target) == file.getSize()
+                    && Util.sha1(target).equalsIgnoreCase(file.getSha1());
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * One of the downloads racing for a file.
+     */
+    private final class Racer {
+
+        private final MrFile file;
+        private final URL url;
+        private final Path target;
+        private final long startTime = System.nanoTime();
+        private volatile boolean cancelled;
+        private volatile long bytes;
+        private long lastBytes;
+        private long lastCheck = startTime;
+        private final CountDownLatch stopped = new CountDownLatch(1);
+        private Thread thread;
+        private IOException error;
+
+        Racer(MrFile file, URL url, Path target) {
+            this.file = file;
+            this.url = url;
+            this.target = target;
+        }
+
+        void run(BlockingQueue<Racer> finished, ProgressConsumer progress) {
+            synchronized (this) {
+                thread = Thread.currentThread();
+            }
+
+            try {
+                if (cancelled)
+                    throw new CancellationException();
+
+                downloadFrom(url, file, target, (string, value) -> {
+                    if (cancelled)
+                        throw new CancellationException();
+                    bytes = (long) (file.getSize() * value);
+                    progress.update(string, value);
+                });
+            } catch (IOException e) {
+                error = e;
+            } catch (RuntimeException e) {
+                error = new IOException(e);
+            } finally {
+                synchronized (this) {
+                    thread = null;
+                    // the pool thread must not carry the interrupt into its next task
+                    Thread.interrupted();
+                }
+                finished.add(this);
+                stopped.countDown();
+            }
+        }
+
+        synchronized void cancel() {
+            cancelled = true;
+            // wakes it up if it is still waiting for a connection slot
+            if (thread != null)
+                thread.interrupt();
+        }
+
+        /**
+         * Checks whether the transfer rate since the last check is too low to finish soon.
+         */
+        boolean isSlow() {
+            long now = System.nanoTime();
+            long transferred = bytes;
+            double rate = (transferred - lastBytes) * 1e9 / Math.max(1, now - lastCheck);
+            lastBytes = transferred;
+            lastCheck = now;
+
+            if (now - startTime < HEDGE_GRACE || rate >= HEDGE_MIN_RATE)
+                return false;
+
+            // not worth racing if it is almost done anyway
+            double remaining = (file.getSize() - transferred) * 1e9 / Math.max(1, rate);
+            return remaining > HEDGE_GRACE;
+        }
+
+        /**
+         * Waits for a cancelled racer to stop writing.
+         */
+        void awaitStopped() {
+            try {
+                stopped.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        /**
+         * Deletes what a stopped racer wrote.
+         */
+        void discard(Path mainTarget) {
+            try {
+                ResumableDownload.discard(target);
+                if (target != mainTarget)
+                    Files.deleteIfExists(target);
+            } catch (IOException e) {
+                System.err.println("Failed to clean up " + target);
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Combines the progress of concurrent downloads, weighted by file size.
+     */
+    private static final class AggregateProgress {
+
+        private final ProgressConsumer parent;
+        private final long total;
+        private final int max;
+        private final AtomicLong done = new AtomicLong();
+        private final AtomicInteger completed = new AtomicInteger();
+
+        AggregateProgress(ProgressConsumer parent, long total, int max) {
+            this.parent = parent;
+            this.total = total;
+            this.max = max;
+            parent.update(tr("installing_mods", 0, max), 0);
+        }
+
+        ProgressConsumer file(MrFile file) {
+            // only updated by one thread at a time, since racers for a file report through a shared lock
+            long[] last = new long[1];
+            return (string, progress) -> {
+                long bytes = (long) (file.getSize() * Math.max(0, Math.min(1, progress)));
+                long delta = bytes - last[0];
+                if (delta == 0)
+                    return;
+
+                last[0] = bytes;
+                if (delta > 0)
+                    parent.transferred(delta);
+                parent.update(null, (float) done.addAndGet(delta) / total);
+            };
+        }
+
+        void complete() {
+            parent.update(tr("installing_mods", completed.incrementAndGet(), max), (float) done.get() / total);
+        }
+    }
+}
@@ -22,22 +22,12 @@
 
 package io.github.axolotlclient.installer.modrinth.pack;
 
-import static io.github.axolotlclient.installer.util.Translate.tr;
-
-import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStream;
-import java.net.URL;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.stream.Collectors;
 
-import io.github.axolotlclient.installer.ProgressConsumer;
-import io.github.axolotlclient.installer.util.Util;
 import io.toadlabs.jfgjds.data.JsonObject;
 import io.toadlabs.jfgjds.data.JsonValue;
 
@@ -77,25 +67,7 @@ public final class MrFile {
         return env;
     }
 
-    public void download(Path base, int current, int max, ProgressConsumer progress) throws IOException {
-        Path target = Util.checkParent(base, base.resolve(path));
-        Iterator<String> iterator = urls.iterator();
-        while (iterator.hasNext()) {
-            try (InputStream in = Util.openStream(new URL(iterator.next()))) {
-                Files.deleteIfExists(target);
-                if (!Files.isDirectory(target.getParent()))
-                    Files.createDirectories(target.getParent());
-
-                try (OutputStream out = Files.newOutputStream(target)) {
-                    Util.progressiveCopy(in, out, size, tr("installing_mods", current, max), progress);
-                }
-            } catch (IOException error) {
-                if (!iterator.hasNext())
-                    throw new IOException("All urls from " + urls + " could not be downloaded", error);
-
-                System.err.printf("URL %s failed; trying next one");
-                error.printStackTrace();
-            }
-        }
+    public List<String> getUrls() {
+        return urls;
     }
 }
@@ -22,73 +22,113 @@
 
 package io.github.axolotlclient.installer.modrinth.pack;
 
-import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 import java.util.zip.ZipEntry;
-import java.util.zip.ZipInputStream;
+import java.util.zip.ZipFile;
 
 import io.github.axolotlclient.installer.ProgressConsumer;
 import io.github.axolotlclient.installer.util.Util;
 import io.toadlabs.jfgjds.JsonDeserializer;
 import io.toadlabs.jfgjds.data.JsonObject;
+import io.toadlabs.jfgjds.data.JsonValue;
 
 public final class MrPack {
 
+    private static final String INDEX = "modrinth.index.json";
+    private static final String OVERRIDES = "overrides/";
+    private static final int EXTRACT_THREADS = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors()));
+
+    private final Path file;
+    private final String versionId;
     private final Map<String, String> dependencies;
     private final List<MrFile> files;
+    // path inside the game directory -> zip entry
+    private final Map<String, ZipEntry> overrideEntries = new LinkedHashMap<>();
+    private final Map<String, Long> overrides = new LinkedHashMap<>();
 
-    // due to technical limitations, it's best to extract the pack as it's read
     public static MrPack extract(InputStream in, String side, Path directory) throws IOException {
-        ZipInputStream zipIn = new ZipInputStream(in);
-        ZipEntry entry;
-        MrPack pack = null;
-        Set<Path> sideExtracted = new HashSet<>();
-        while ((entry = zipIn.getNextEntry()) != null) {
-            boolean sideOverride = entry.getName().startsWith(side + "-overrides/");
-
-            if (entry.getName().equals("modrinth.index.json"))
-                pack = new MrPack(JsonDeserializer.read(zipIn, StandardCharsets.UTF_8).asObject(), side);
-            else if (entry.getName().startsWith("overrides/")) {
-                Path path = Util.checkParent(directory,
-                        directory.resolve(entry.getName().substring(entry.getName().indexOf('/') + 1)));
-                if (!sideExtracted.add(path) && !sideOverride)
-                    // the side-specific takes priority!
-                    continue;
-
-                if (entry.isDirectory())
-                    continue;
-
-                if (Files.isRegularFile(path))
-                    Files.deleteIfExists(path);
-                if (Files.isDirectory(path))
-                    continue;
-                if (!Files.isDirectory(path.getParent()))
-                    Files.createDirectories(path.getParent());
+        return extract(in, side, directory, Collections.emptyMap());
+    }
 
-                Files.copy(zipIn, path);
-            }
+    /**
+     * Spools the pack to a temporary file and extracts it.
+     * @see #extract(Path, String, Path, Map)
+     */
+    public static MrPack extract(InputStream in, String side, Path directory, Map<String, Long> previous)
+            throws IOException {
+        Path temp = Files.createTempFile("axolotlclient", ".mrpack");
+        try {
+            Util.copy(in, temp);
+            return extract(temp, side, directory, previous);
+        } finally {
+            Files.deleteIfExists(temp);
         }
+    }
 
-        if (pack == null)
-            throw new MrPackException("Not a valid mrpack");
-
+    /**
+     * Extracts the overrides, skipping files which are unchanged since the last install.
+     * @param previous the overrides from the last install mapped to their CRC-32.
+     */
+    public static MrPack extract(Path file, String side, Path directory, Map<String, Long> previous)
+            throws IOException {
+        MrPack pack = read(file, side);
+        pack.extractOverrides(directory, previous);
         return pack;
     }
 
-    private MrPack(JsonObject obj, String side) {
+    /**
+     * Reads the index and the list of overrides without extracting anything.
+     */
+    public static MrPack read(Path file, String side) throws IOException {
+        try (ZipFile zip = new ZipFile(file.toFile())) {
+            ZipEntry index = zip.getEntry(INDEX);
+            if (index == null)
+                throw new MrPackException("Not a valid mrpack");
+
+            MrPack pack;
+            try (InputStream in = zip.getInputStream(index)) {
+                pack = new MrPack(file, JsonDeserializer.read(in, StandardCharsets.UTF_8).asObject(), side);
+            }
+
+            // the side-specific overrides take priority, so they are applied last
+            String sideOverrides = side + '-' + OVERRIDES;
+            for (String prefix : new String[] { OVERRIDES, sideOverrides }) {
+                Enumeration<? extends ZipEntry> entries = zip.entries();
+                while (entries.hasMoreElements()) {
+                    ZipEntry entry = entries.nextElement();
+                    if (entry.isDirectory() || !entry.getName().startsWith(prefix))
+                        continue;
+
+                    String name = entry.getName().substring(prefix.length());
+                    pack.overrideEntries.put(name, entry);
+                    pack.overrides.put(name, entry.getCrc());
+                }
+            }
+            return pack;
+        }
+    }
+
+    private MrPack(Path path, JsonObject obj, String side) {
+        this.file = path;
+        versionId = obj.getOpt("versionId").map(JsonValue::getStringValue).orElse(null);
         dependencies = new HashMap<>();
         files = new ArrayList<>();
 
@@ -96,6 +136,10 @@ public final class MrPack {
         obj.get("files").asArray().forEach((file) -> files.add(new MrFile(file.asObject(), side)));
     }
 
+    public String getVersionId() {
+        return versionId;
+    }
+
     public Map<String, String> getDependencies() {
         return dependencies;
     }
@@ -104,22 +148,110 @@ public final class MrPack {
         return files;
     }
 
-    public void installMods(Path base, Predicate<MrFile> optionalModHandling, ProgressConsumer progress) {
-        float percent = 0;
-        float percentStep = 1F / files.size();
-
-        List<MrFile> files = this.files.stream().filter(file -> file.getEnv() != MrEnvSpec.UNSUPPORTED).filter(file -> file.getEnv() != MrEnvSpec.OPTIONAL || optionalModHandling.test(file)).collect(Collectors.toList());
-        int current = 1;
-        int max = files.size();
-        for (MrFile file : files) {
-            try {
-                file.download(base, current, max, progress.subprogress(percent, percent + percentStep));
-            } catch (IOException e) {
-                System.err.println("Failed to download file");
-                e.printStackTrace();
+    /**
+     * Gets the overrides for this side mapped to their CRC-32.
+     */
+    public Map<String, Long> getOverrides() {
+        return overrides;
+    }
+
+    /**
+     * Extracts the overrides in parallel, skipping files which are unchanged since the last install.
+     * @param previous the overrides from the last install mapped to their CRC-32.
+     */
+    public void extractOverrides(Path directory, Map<String, Long> previous) throws IOException {
+        extractOverrides(directory, directory, previous);
+    }
+
+    /**
+     * Extracts the overrides which differ from what is in a directory into another one.
+     * @param directory the directory the overrides are compared against.
+     * @param output the directory the changed overrides are written to.
+     * @param previous the overrides from the last install mapped to their CRC-32.
+     */
+    public void extractOverrides(Path directory, Path output, Map<String, Long> previous) throws IOException {
+        if (overrideEntries.isEmpty())
+            return;
+
+        ExecutorService executor = Executors.newFixedThreadPool(EXTRACT_THREADS, task -> {
+            Thread thread = new Thread(task, "override-extract");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        try (ZipFile zip = new ZipFile(file.toFile())) {
+            List<Future<?>> futures = new ArrayList<>();
+            overrideEntries.forEach((name, entry) -> futures.add(executor.submit(() -> {
+                Path existing = Util.checkParent(directory, directory.resolve(name));
+                Long previousCrc = previous.get(name);
+                if (previousCrc != null && previousCrc == entry.getCrc() && Files.isRegularFile(existing))
+                    return null;
+
+                if (Files.isDirectory(existing))
+                    return null;
+
+                Path path = Util.checkParent(output, output.resolve(name));
+                if (!Files.isDirectory(path.getParent()))
+                    Files.createDirectories(path.getParent());
+
+                try (InputStream in = zip.getInputStream(entry)) {
+                    Util.copy(in, path);
+                }
+                return null;
+            })));
+
+            IOException error = null;
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    IOException cause = e.getCause() instanceof IOException ? (IOException) e.getCause()
+                            : new IOException(e.getCause());
+                    if (error == null)
+                        error = cause;
+                    else
+                        error.addSuppressed(cause);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException();
+                }
             }
-            current++;
-            percent += percentStep;
+
+            if (error != null)
+                throw error;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Gets the files which should be installed on this side.
+     */
+    public List<MrFile> getInstallableFiles(Predicate<MrFile> optionalModHandling) {
+        return files.stream().filter(file -> file.getEnv() != MrEnvSpec.UNSUPPORTED)
+                .filter(file -> file.getEnv() != MrEnvSpec.OPTIONAL || optionalModHandling.test(file))
+                .collect(Collectors.toList());
+    }
+
+    public void installMods(Path base, Predicate<MrFile> optionalModHandling, ProgressConsumer progress)
+            throws IOException {
+        installMods(base, optionalModHandling, new MrDownloader(), progress);
+    }
+
+    /**
+     * Downloads all files applicable to this side concurrently.
+     * @throws IOException if any file could not be downloaded, with the error of each such file suppressed.
+     */
+    public void installMods(Path base, Predicate<MrFile> optionalModHandling, MrDownloader downloader,
+            ProgressConsumer progress) throws IOException {
+        List<MrFile> files = getInstallableFiles(optionalModHandling);
+        Map<MrFile, IOException> failures = downloader.downloadAll(base, files, progress);
+        // a partial install is worse than none, since the game would start with mods missing
+        if (!failures.isEmpty()) {
+            IOException error = new IOException("Failed to download " + failures.size() + " of " + files.size()
+                    + " files into " + base);
+            failures.values().forEach(error::addSuppressed);
+            throw error;
         }
     }
 }
@@ -0,0 +1,306 @@
+/*
+ * Copyright © 2023-2023 moehreag <moehreag@gmail.com>, TheKodeToad <TheKodeToad@proton.me> & Contributors
+ *
+ * This file is part of AxolotlClient Installer.
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ * For more information, see the LICENSE file.
+ */
+
+package io.github.axolotlclient.installer.util;
+
+import java.io.IOException;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * A content-addressed file cache keyed by SHA-1, shared between installs.
+ * The least recently used entries are evicted once the cache grows past its size limit. Uses are recorded on an
+ * empty sidecar file next to each entry, since the entry itself may be hard linked into a game dir, whose
+ * modification time must not change.
+ */
+public final class DownloadCache {
+
+    public static final long DEFAULT_MAX_SIZE = 2L * 1024 * 1024 * 1024;
+    private static final String ACCESS_SUFFIX = ".access";
+    // partial downloads which have not been written to for this long are abandoned
+    private static final long ABANDONED_MILLIS = TimeUnit.DAYS.toMillis(1);
+
+    private final Path dir;
+    private final long maxSize;
+
+    public DownloadCache(Path dir) {
+        this(dir, DEFAULT_MAX_SIZE);
+    }
+
+    public DownloadCache(Path dir, long maxSize) {
+        this.dir = dir;
+        this.maxSize = maxSize;
+    }
+
+    public Path getDir() {
+        return dir;
+    }
+
+    /**
+     * Gets a cached file and marks it as recently used.
+     * @return the file, or <code>null</code> if it is not cached.
+     */
+    public Path get(String sha1) {
+        Path path = resolve(sha1);
+        if (!Files.isRegularFile(path))
+            return null;
+
+        touch(path);
+        return path;
+    }
+
+    /**
+     * Gets the location a file is cached at, whether or not it exists.
+     */
+    public Path getPath(String sha1) {
+        return resolve(sha1);
+    }
+
+    /**
+     * Copies a cached file to the target.
+     * @return <code>false</code> if the file is not cached.
+     */
+    public boolean copyTo(String sha1, Path target) throws IOException {
+        Path path = get(sha1);
+        if (path == null)
+            return false;
+
+        if (!Files.isDirectory(target.getParent()))
+            Files.createDirectories(target.getParent());
+
+        try {
+            Util.copyFile(path, target);
+            return true;
+        } catch (NoSuchFileException e) {
+            // evicted in the meantime
+            return false;
+        }
+    }
+
+    /**
+     * Hard links a cached file to the target, copying it if the file system does not support links.
+     * Linked files share their contents with the cache, so they must only ever be replaced and never written to.
+     * @return <code>false</code> if the file is not cached.
+     */
+    public boolean linkTo(String sha1, Path target) throws IOException {
+        Path path = get(sha1);
+        if (path == null)
+            return false;
+
+        if (!Files.isDirectory(target.getParent()))
+            Files.createDirectories(target.getParent());
+
+        Files.deleteIfExists(target);
+        try {
+            Files.createLink(target, path);
+            return true;
+        } catch (NoSuchFileException e) {
+            return false;
+        } catch (UnsupportedOperationException | FileSystemException e) {
+            // different file systems, or links are not supported
+            return copyTo(sha1, target);
+        }
+    }
+
+    /**
+     * Stores a copy of a file. The caller is responsible for verifying that it matches the hash.
+     */
+    public void put(String sha1, Path source) throws IOException {
+        Path path = resolve(sha1);
+        if (Files.exists(path))
+            return;
+
+        Files.createDirectories(path.getParent());
+        Path temp = Files.createTempFile(path.getParent(), path.getFileName().toString(), ".tmp");
+        try {
+            Util.copyFile(source, temp);
+            Util.moveAtomically(temp, path);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Deletes the least recently used entries until the cache fits its size limit.
+     */
+    public synchronized void evict() throws IOException {
+        if (!Files.isDirectory(dir))
+            return;
+
+        // entries which are linked into a game dir take no extra space, and deleting them would free none
+        List<Path> entries = list().stream().filter(path -> getLinkCount(path) <= 1)
+                .collect(Collectors.toCollection(ArrayList::new));
+
+        long size = 0;
+        for (Path entry : entries)
+            size += sizeOf(entry);
+
+        if (size <= maxSize)
+            return;
+
+        entries.sort(Comparator.comparingLong(DownloadCache::lastUsed));
+        for (Path entry : entries) {
+            if (size <= maxSize)
+                break;
+
+            size -= sizeOf(entry);
+            delete(entry);
+        }
+    }
+
+    /**
+     * Deletes the entries which are neither in use nor linked into a game dir, as well as abandoned partial
+     * downloads.
+     * @param referenced the hashes of the entries still in use.
+     * @return the number of bytes freed.
+     */
+    public synchronized long collectGarbage(Set<String> referenced) throws IOException {
+        if (!Files.isDirectory(dir))
+            return 0;
+
+        long freed = 0;
+        for (Path entry : list()) {
+            String name = entry.getFileName().toString().toLowerCase(Locale.ROOT);
+            if (referenced.contains(name) || getLinkCount(entry) > 1)
+                continue;
+
+            freed += sizeOf(entry);
+            delete(entry);
+        }
+
+        long abandoned = System.currentTimeMillis() - ABANDONED_MILLIS;
+        List<Path> others;
+        try (Stream<Path> stream = Files.walk(dir, 2)) {
+            others = stream.filter(Files::isRegularFile).filter(path -> !isEntry(path))
+                    .filter(path -> lastModified(path) < abandoned).filter(path -> !isInUseSidecar(path))
+                    .collect(Collectors.toList());
+        }
+        for (Path other : others) {
+            freed += sizeOf(other);
+            Files.deleteIfExists(other);
+        }
+        return freed;
+    }
+
+    /**
+     * Lists the complete entries. Partial downloads, temporary files and sidecars are left out, so that nothing
+     * which is still being written gets evicted.
+     */
+    private List<Path> list() throws IOException {
+        try (Stream<Path> stream = Files.walk(dir, 2)) {
+            return stream.filter(Files::isRegularFile).filter(DownloadCache::isEntry).collect(Collectors.toList());
+        }
+    }
+
+    private static boolean isEntry(Path path) {
+        return isHash(path.getFileName().toString());
+    }
+
+    private static boolean isInUseSidecar(Path path) {
+        String name = path.getFileName().toString();
+        return name.endsWith(ACCESS_SUFFIX)
+                && Files.exists(path.resolveSibling(name.substring(0, name.length() - ACCESS_SUFFIX.length())));
+    }
+
+    private static boolean isHash(String name) {
+        return name.length() >= 3 && name.chars().allMatch(c -> Character.digit(c, 16) != -1);
+    }
+
+    /**
+     * Marks an entry as recently used.
+     */
+    private static void touch(Path entry) {
+        Path access = getAccessPath(entry);
+        try {
+            try {
+                Files.setLastModifiedTime(access, FileTime.fromMillis(System.currentTimeMillis()));
+            } catch (NoSuchFileException e) {
+                Files.createFile(access);
+            }
+        } catch (IOException e) {
+            // only makes the entry more likely to be evicted
+        }
+    }
+
+    private static void delete(Path entry) throws IOException {
+        Files.deleteIfExists(entry);
+        Files.deleteIfExists(getAccessPath(entry));
+    }
+
+    private static Path getAccessPath(Path entry) {
+        return entry.resolveSibling(entry.getFileName() + ACCESS_SUFFIX);
+    }
+
+    /**
+     * @return the number of hard links to a file, or 1 if it is unknown.
+     */
+    private static int getLinkCount(Path path) {
+        try {
+            return (Integer) Files.getAttribute(path, "unix:nlink");
+        } catch (IOException | RuntimeException e) {
+            return 1;
+        }
+    }
+
+    private Path resolve(String sha1) {
+        String key = sha1.toLowerCase(Locale.ROOT);
+        if (!isHash(key))
+            throw new IllegalArgumentException("Not a SHA-1 hash: " + sha1);
+
+        return dir.resolve(key.substring(0, 2)).resolve(key);
+    }
+
+    private static long sizeOf(Path path) {
+        try {
+            return Files.size(path);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static long lastModified(Path path) {
+        try {
+            return Files.getLastModifiedTime(path).toMillis();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * @return when an entry was last used, or when it was stored if it was never used since.
+     */
+    private static long lastUsed(Path entry) {
+        long accessed = lastModified(getAccessPath(entry));
+        return accessed != 0 ? accessed : lastModified(entry);
+    }
+}
@@ -0,0 +1,389 @@
+/*
+ * Copyright © 2023-2023 moehreag <moehreag@gmail.com>, TheKodeToad <TheKodeToad@proton.me> & Contributors
+ *
+ * This file is part of AxolotlClient Installer.
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ * For more information, see the LICENSE file.
+ */
+
+package io.github.axolotlclient.installer.util;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * A minimal pull parser for JSON, for documents which are too large to be worth building a tree for.
+ */
+public final class JsonReader implements Closeable {
+
+    public enum Token {
+        BEGIN_ARRAY, END_ARRAY, BEGIN_OBJECT, END_OBJECT, NAME, STRING, NUMBER, BOOLEAN, NULL, END_DOCUMENT
+    }
+
+    private static final int EMPTY_ARRAY = 1;
+    private static final int NONEMPTY_ARRAY = 2;
+    private static final int EMPTY_OBJECT = 3;
+    private static final int DANGLING_NAME = 4;
+    private static final int NONEMPTY_OBJECT = 5;
+    private static final int EMPTY_DOCUMENT = 6;
+    private static final int NONEMPTY_DOCUMENT = 7;
+
+    private final Reader in;
+    private final char[] buffer = new char[8192];
+    private int pos;
+    private int limit;
+    private int[] stack = new int[32];
+    private int size;
+    private Token peeked;
+
+    public JsonReader(Reader in) {
+        this.in = in;
+        push(EMPTY_DOCUMENT);
+    }
+
+    public Token peek() throws IOException {
+        if (peeked != null)
+            return peeked;
+
+        int scope = stack[size - 1];
+        int c;
+        switch (scope) {
+            case EMPTY_ARRAY:
+                stack[size - 1] = NONEMPTY_ARRAY;
+                break;
+            case NONEMPTY_ARRAY:
+                c = nextNonWhitespace(true);
+                if (c == ']')
+                    return peeked = Token.END_ARRAY;
+                if (c != ',')
+                    throw syntaxError("Expected ',' or ']'");
+                break;
+            case EMPTY_OBJECT:
+            case NONEMPTY_OBJECT:
+                stack[size - 1] = DANGLING_NAME;
+                c = nextNonWhitespace(true);
+                if (scope == NONEMPTY_OBJECT) {
+                    if (c == '}')
+                        return peeked = Token.END_OBJECT;
+                    if (c != ',')
+                        throw syntaxError("Expected ',' or '}'");
+                    c = nextNonWhitespace(true);
+                } else if (c == '}')
+                    return peeked = Token.END_OBJECT;
+
+                if (c != '"')
+                    throw syntaxError("Expected a name");
+                return peeked = Token.NAME;
+            case DANGLING_NAME:
+                stack[size - 1] = NONEMPTY_OBJECT;
+                if (nextNonWhitespace(true) != ':')
+                    throw syntaxError("Expected ':'");
+                break;
+            case EMPTY_DOCUMENT:
+                stack[size - 1] = NONEMPTY_DOCUMENT;
+                break;
+            case NONEMPTY_DOCUMENT:
+                if (nextNonWhitespace(false) != -1)
+                    throw syntaxError("Expected end of document");
+                return peeked = Token.END_DOCUMENT;
+            default:
+                throw new IllegalStateException("Reader is closed");
+        }
+
+        c = nextNonWhitespace(true);
+        switch (c) {
+            case ']':
+                if (scope == EMPTY_ARRAY)
+                    return peeked = Token.END_ARRAY;
+                throw syntaxError("Unexpected ']'");
+            case '[':
+                return peeked = Token.BEGIN_ARRAY;
+            case '{':
+                return peeked = Token.BEGIN_OBJECT;
+            case '"':
+                return peeked = Token.STRING;
+            case 't':
+            case 'f':
+                pos--;
+                return peeked = Token.BOOLEAN;
+            case 'n':
+                pos--;
+                return peeked = Token.NULL;
+            default:
+                if (c != '-' && (c < '0' || c > '9'))
+                    throw syntaxError("Unexpected character '" + (char) c + '\'');
+                pos--;
+                return peeked = Token.NUMBER;
+        }
+    }
+
+    public boolean hasNext() throws IOException {
+        Token token = peek();
+        return token != Token.END_ARRAY && token != Token.END_OBJECT && token != Token.END_DOCUMENT;
+    }
+
+    public void beginArray() throws IOException {
+        expect(Token.BEGIN_ARRAY);
+        push(EMPTY_ARRAY);
+    }
+
+    public void endArray() throws IOException {
+        expect(Token.END_ARRAY);
+        size--;
+    }
+
+    public void beginObject() throws IOException {
+        expect(Token.BEGIN_OBJECT);
+        push(EMPTY_OBJECT);
+    }
+
+    public void endObject() throws IOException {
+        expect(Token.END_OBJECT);
+        size--;
+    }
+
+    public String nextName() throws IOException {
+        expect(Token.NAME);
+        return readString();
+    }
+
+    /**
+     * Reads a string, or the literal text of a number.
+     */
+    public String nextString() throws IOException {
+        Token token = peek();
+        if (token == Token.NUMBER) {
+            peeked = null;
+            return readLiteral();
+        }
+
+        expect(Token.STRING);
+        return readString();
+    }
+
+    public boolean nextBoolean() throws IOException {
+        expect(Token.BOOLEAN);
+        String literal = readLiteral();
+        if (literal.equals("true"))
+            return true;
+        if (literal.equals("false"))
+            return false;
+
+        throw syntaxError("Expected a boolean but was " + literal);
+    }
+
+    public void nextNull() throws IOException {
+        expect(Token.NULL);
+        if (!readLiteral().equals("null"))
+            throw syntaxError("Expected null");
+    }
+
+    public long nextLong() throws IOException {
+        expect(Token.NUMBER);
+        String literal = readLiteral();
+        try {
+            return Long.parseLong(literal);
+        } catch (NumberFormatException e) {
+            try {
+                return (long) Double.parseDouble(literal);
+            } catch (NumberFormatException e2) {
+                throw syntaxError("Expected a number but was " + literal);
+            }
+        }
+    }
+
+    public int nextInt() throws IOException {
+        long value = nextLong();
+        if ((int) value != value)
+            throw syntaxError("Number out of range: " + value);
+
+        return (int) value;
+    }
+
+    /**
+     * Skips the next value, including everything nested in it.
+     */
+    public void skipValue() throws IOException {
+        int depth = 0;
+        do {
+            switch (peek()) {
+                case BEGIN_ARRAY:
+                    beginArray();
+                    depth++;
+                    break;
+                case BEGIN_OBJECT:
+                    beginObject();
+                    depth++;
+                    break;
+                case END_ARRAY:
+                    endArray();
+                    depth--;
+                    break;
+                case END_OBJECT:
+                    endObject();
+                    depth--;
+                    break;
+                case NAME:
+                    nextName();
+                    break;
+                case STRING:
+                    peeked = null;
+                    skipString();
+                    break;
+                case NUMBER:
+                case BOOLEAN:
+                case NULL:
+                    peeked = null;
+                    readLiteral();
+                    break;
+                default:
+                    throw syntaxError("Unexpected end of document");
+            }
+        } while (depth > 0);
+    }
+
+    @Override
+    public void close() throws IOException {
+        peeked = null;
+        stack[0] = 0;
+        size = 1;
+        in.close();
+    }
+
+    private void expect(Token expected) throws IOException {
+        Token token = peek();
+        if (token != expected)
+            throw syntaxError("Expected " + expected + " but was " + token);
+
+        peeked = null;
+    }
+
+    private void push(int scope) {
+        if (size == stack.length)
+            stack = Arrays.copyOf(stack, size * 2);
+
+        stack[size++] = scope;
+    }
+
+    private boolean fill() throws IOException {
+        if (pos < limit)
+            return true;
+
+        pos = 0;
+        limit = in.read(buffer);
+        if (limit <= 0) {
+            limit = 0;
+            return false;
+        }
+        return true;
+    }
+
+    private int nextNonWhitespace(boolean required) throws IOException {
+        while (fill()) {
+            char c = buffer[pos++];
+            if (c != ' ' && c != '\t' && c != '\n' && c != '\r')
+                return c;
+        }
+
+        if (required)
+            throw new EOFException("Unexpected end of document");
+        return -1;
+    }
+
+    private char nextChar() throws IOException {
+        if (!fill())
+            throw new EOFException("Unterminated string");
+
+        return buffer[pos++];
+    }
+
+    private String readString() throws IOException {
+        StringBuilder result = new StringBuilder();
+        while (true) {
+            // copy runs of plain characters in bulk
+            int start = pos;
+            while (pos < limit && buffer[pos] != '"' && buffer[pos] != '\\')
+                pos++;
+            result.append(buffer, start, pos - start);
+
+            char c = nextChar();
+            if (c == '"')
+                return result.toString();
+            if (c == '\\')
+                result.append(readEscape());
+            else
+                result.append(c);
+        }
+    }
+
+    private void skipString() throws IOException {
+        while (true) {
+            char c = nextChar();
+            if (c == '"')
+                return;
+            if (c == '\\')
+                readEscape();
+        }
+    }
+
+    private char readEscape() throws IOException {
+        char c = nextChar();
+        switch (c) {
+            case 'u':
+                int value = 0;
+                for (int i = 0; i < 4; i++) {
+                    int digit = Character.digit(nextChar(), 16);
+                    if (digit == -1)
+                        throw syntaxError("Invalid unicode escape");
+                    value = (value << 4) | digit;
+                }
+                return (char) value;
+            case 'b':
+                return '\b';
+            case 'f':
+                return '\f';
+            case 'n':
+                return '\n';
+            case 'r':
+                return '\r';
+            case 't':
+                return '\t';
+            default:
+                return c;
+        }
+    }
+
+    private String readLiteral() throws IOException {
+        StringBuilder result = new StringBuilder();
+        while (fill()) {
+            char c = buffer[pos];
+            if (c == ',' || c == ']' || c == '}' || c == ':' || c == ' ' || c == '\t' || c == '\n' || c == '\r')
+                break;
+
+            result.append(c);
+            pos++;
+        }
+        return result.toString();
+    }
+
+    private IOException syntaxError(String message) {
+        return new IOException("Malformed JSON: " + message);
+    }
+}
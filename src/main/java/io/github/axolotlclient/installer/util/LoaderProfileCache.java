@@ -0,0 +1,84 @@
+/*
+ * Copyright © 2023-2023 moehreag <moehreag@gmail.com>, TheKodeToad <TheKodeToad@proton.me> & Contributors
+ *
+ * This file is part of AxolotlClient Installer.
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ * For more information, see the LICENSE file.
+ */
+
+package io.github.axolotlclient.installer.util;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Caches loader profiles (the version JSONs from a loader's meta server) keyed by loader type, game version and
+ * loader version, shared between launcher dirs. Profiles are stored as they are installed, i.e. with any fixes
+ * already applied, so the format directory must change whenever those fixes do.
+ */
+public final class LoaderProfileCache {
+
+    // bump when the stored profiles are processed differently
+    private static final String FORMAT = "v1";
+
+    private final Path dir;
+
+    public LoaderProfileCache(Path dir) {
+        this.dir = dir.resolve(FORMAT);
+    }
+
+    /**
+     * @return the cached profile, or <code>null</code> if it is not cached.
+     */
+    public Path get(String type, String gameVersion, String loaderVersion) {
+        Path path = resolve(type, gameVersion, loaderVersion);
+        return Files.isRegularFile(path) ? path : null;
+    }
+
+    /**
+     * Stores a profile. The file only appears once it has been written completely.
+     * @return the cached profile.
+     */
+    public Path put(String type, String gameVersion, String loaderVersion, byte[] profile) throws IOException {
+        Path path = resolve(type, gameVersion, loaderVersion);
+        Files.createDirectories(path.getParent());
+
+        Util.writeAtomically(path, out -> out.write(profile));
+        return path;
+    }
+
+    private Path resolve(String type, String gameVersion, String loaderVersion) {
+        return dir.resolve(sanitize(type)).resolve(sanitize(gameVersion)).resolve(sanitize(loaderVersion) + ".json");
+    }
+
+    /**
+     * Makes a version usable as a single path element.
+     */
+    private static String sanitize(String name) {
+        StringBuilder result = new StringBuilder(name.length());
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            result.append(Character.isLetterOrDigit(c) || c == '.' || c == '-' || c == '_' || c == '+' ? c : '_');
+        }
+
+        // "." and ".." are not names
+        if (result.length() == 0 || result.toString().matches("\\.+"))
+            result.insert(0, '_');
+        return result.toString();
+    }
+}
@@ -0,0 +1,244 @@
+/*
+ * Copyright © 2023-2023 moehreag <moehreag@gmail.com>, TheKodeToad <TheKodeToad@proton.me> & Contributors
+ *
+ * This file is part of AxolotlClient Installer.
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ * For more information, see the LICENSE file.
+ */
+
+package io.github.axolotlclient.installer.util;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A Minecraft version, parsed once into a key of integers so that comparing two versions is a loop over two
+ * arrays. Parsing never fails: anything unrecognised sorts before every recognised version, by name.
+ * <p>
+ * Snapshots (e.g. <code>23w13a</code>) sort before all other recognised versions, by year, week and letter.
+ * Otherwise, versions sort by era (pre-classic, classic, infdev, alpha, beta, then everything else), by their
+ * numbers, and then experimental builds, pre-releases, release candidates, the release and combat tests of the
+ * same numbers in that order. Versions with equal keys are ordered by name, so the ordering is consistent with
+ * {@link #equals(Object)}.
+ */
+public final class MinecraftVersion implements Comparable<MinecraftVersion> {
+
+    // enough for every version Minecraft has used so far, and parsing more is pointless
+    private static final int MAX_INTERNED = 8192;
+    private static final Map<String, MinecraftVersion> INTERNED = new ConcurrentHashMap<>();
+
+    private static final int PARTS = 4;
+    // key layout: group, era, parts, stage, stage number
+    private static final int KEY_LENGTH = 2 + PARTS + 2;
+
+    private static final int GROUP_OTHER = 0;
+    private static final int GROUP_SNAPSHOT = 1;
+    private static final int GROUP_NUMBERED = 2;
+
+    private static final String[] ERAS = {"rd-", "c", "inf-", "a", "b"};
+    private static final int ERA_RELEASE = ERAS.length;
+
+    private static final int STAGE_EXPERIMENTAL = 0;
+    private static final int STAGE_PRE_RELEASE = 1;
+    private static final int STAGE_RELEASE_CANDIDATE = 2;
+    private static final int STAGE_RELEASE = 3;
+    private static final int STAGE_COMBAT = 4;
+
+    private final String name;
+    private final int[] key;
+
+    /**
+     * Gets the version with the given name, reusing an earlier instance if there is one.
+     */
+    public static MinecraftVersion parse(String name) {
+        MinecraftVersion version = INTERNED.get(name);
+        if (version != null)
+            return version;
+
+        version = new MinecraftVersion(name);
+        if (INTERNED.size() < MAX_INTERNED) {
+            MinecraftVersion previous = INTERNED.putIfAbsent(name, version);
+            if (previous != null)
+                return previous;
+        }
+        return version;
+    }
+
+    private MinecraftVersion(String name) {
+        this.name = name;
+        this.key = new int[KEY_LENGTH];
+        if (!parseSnapshot(name, key) && !parseNumbered(name, key))
+            key[0] = GROUP_OTHER;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public boolean isSnapshot() {
+        return key[0] == GROUP_SNAPSHOT;
+    }
+
+    /**
+     * Checks whether this is a full release, i.e. not a snapshot, pre-release, release candidate or experiment.
+     */
+    public boolean isRelease() {
+        return key[0] == GROUP_NUMBERED && key[KEY_LENGTH - 2] == STAGE_RELEASE;
+    }
+
+    /**
+     * Checks whether this version lies in a range, both ends inclusive.
+     */
+    public boolean isBetween(MinecraftVersion min, MinecraftVersion max) {
+        return compareTo(min) >= 0 && compareTo(max) <= 0;
+    }
+
+    @Override
+    public int compareTo(MinecraftVersion other) {
+        if (this == other)
+            return 0;
+
+        int[] a = key;
+        int[] b = other.key;
+        for (int i = 0; i < KEY_LENGTH; i++)
+            if (a[i] != b[i])
+                return a[i] < b[i] ? -1 : 1;
+
+        return name.compareTo(other.name);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof MinecraftVersion && ((MinecraftVersion) obj).name.equals(name);
+    }
+
+    @Override
+    public int hashCode() {
+        return name.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+
+    /**
+     * Parses <code>YYwWWx</code>, e.g. <code>23w13a</code>.
+     */
+    private static boolean parseSnapshot(String name, int[] key) {
+        if (name.length() < 5 || name.charAt(2) != 'w' || !isDigit(name, 0) || !isDigit(name, 1)
+                || !isDigit(name, 3) || !isDigit(name, 4))
+            return false;
+
+        key[0] = GROUP_SNAPSHOT;
+        key[2] = parseInt(name, 0, 2);
+        key[3] = parseInt(name, 3, 5);
+        key[4] = name.length() > 5 ? name.charAt(5) : 0;
+        return true;
+    }
+
+    /**
+     * Parses an optional era prefix, dot-separated numbers and an optional suffix naming the stage.
+     */
+    private static boolean parseNumbered(String name, int[] key) {
+        int era = ERA_RELEASE;
+        int index = 0;
+        for (int i = 0; i < ERAS.length; i++) {
+            if (name.startsWith(ERAS[i]) && isDigit(name, ERAS[i].length())) {
+                era = i;
+                index = ERAS[i].length();
+                break;
+            }
+        }
+
+        if (!isDigit(name, index))
+            return false;
+
+        key[0] = GROUP_NUMBERED;
+        key[1] = era;
+        int part = 0;
+        while (true) {
+            int end = skipDigits(name, index);
+            if (part < PARTS)
+                key[2 + part] = parseInt(name, index, end);
+            part++;
+            index = end;
+            if (index + 1 < name.length() && name.charAt(index) == '.' && isDigit(name, index + 1))
+                index++;
+            else
+                break;
+        }
+
+        String suffix = name.substring(index).toLowerCase(Locale.ROOT);
+        int stage;
+        if (suffix.isEmpty())
+            stage = STAGE_RELEASE;
+        else if (suffix.startsWith("-pre") || suffix.startsWith(" pre-release"))
+            stage = STAGE_PRE_RELEASE;
+        else if (suffix.startsWith("-rc") || suffix.startsWith(" release candidate"))
+            stage = STAGE_RELEASE_CANDIDATE;
+        else if (suffix.startsWith("_combat"))
+            stage = STAGE_COMBAT;
+        else
+            stage = STAGE_EXPERIMENTAL;
+
+        key[KEY_LENGTH - 2] = stage;
+        key[KEY_LENGTH - 1] = lastNumber(suffix);
+        return true;
+    }
+
+    private static int lastNumber(String string) {
+        int end = string.length();
+        while (end > 0 && !isDigit(string, end - 1))
+            end--;
+
+        int start = end;
+        while (start > 0 && isDigit(string, start - 1))
+            start--;
+
+        return parseInt(string, start, end);
+    }
+
+    private static int skipDigits(String string, int index) {
+        while (isDigit(string, index))
+            index++;
+        return index;
+    }
+
+    private static boolean isDigit(String string, int index) {
+        if (index >= string.length())
+            return false;
+
+        char c = string.charAt(index);
+        return c >= '0' && c <= '9';
+    }
+
+    /**
+     * Parses ASCII digits, saturating instead of overflowing.
+     */
+    private static int parseInt(String string, int start, int end) {
+        int result = 0;
+        for (int i = start; i < end; i++) {
+            int digit = string.charAt(i) - '0';
+            if (result > (Integer.MAX_VALUE - digit) / 10)
+                return Integer.MAX_VALUE;
+            result = result * 10 + digit;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,196 @@
+/*
+ * Copyright © 2023-2023 moehreag <moehreag@gmail.com>, TheKodeToad <TheKodeToad@proton.me> & Contributors
+ *
+ * This file is part of AxolotlClient Installer.
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ * For more information, see the LICENSE file.
+ */
+
+package io.github.axolotlclient.installer.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+
+import io.github.axolotlclient.installer.ProgressConsumer;
+import io.github.axolotlclient.installer.http.Http;
+import io.github.axolotlclient.installer.http.HttpRequest;
+import io.github.axolotlclient.installer.http.HttpResponse;
+import io.toadlabs.jfgjds.JsonDeserializer;
+import io.toadlabs.jfgjds.JsonSerializer;
+import io.toadlabs.jfgjds.data.JsonObject;
+import io.toadlabs.jfgjds.data.JsonValue;
+
+/**
+ * Downloads into a <code>.part</code> file which is resumed with a range request after an interruption, and only
+ * moved to the target once its hash has been verified. A small journal next to the partial file remembers where
+ * it came from, so that a partial file is never resumed from a different source or for different contents.
+ */
+public final class ResumableDownload {
+
+    private static final String PART_SUFFIX = ".part";
+    private static final String JOURNAL_SUFFIX = ".part.json";
+
+    /**
+     * Downloads a file.
+     * @param sha1 the expected hash.
+     * @param size the expected size, used for progress.
+     */
+    public static void download(URL url, Path target, String sha1, long size, ProgressConsumer progress)
+            throws IOException {
+        Path part = target.resolveSibling(target.getFileName() + PART_SUFFIX);
+        Path journal = target.resolveSibling(target.getFileName() + JOURNAL_SUFFIX);
+        if (!Files.isDirectory(target.getParent()))
+            Files.createDirectories(target.getParent());
+
+        JsonObject previous = readJournal(journal);
+        long existing = 0;
+        if (previous != null && Files.isRegularFile(part)
+                && previous.get("url").getStringValue().equals(url.toString())
+                && previous.get("sha1").getStringValue().equalsIgnoreCase(sha1))
+            existing = Files.size(part);
+        else
+            previous = null;
+
+        // hash what is already there so that the complete file never needs a second pass
+        MessageDigest digest = Util.sha1();
+        if (existing > 0)
+            existing = hashPrefix(part, existing, digest);
+
+        HttpRequest request = new HttpRequest(url);
+        if (existing > 0) {
+            request.header("Range", "bytes=" + existing + '-');
+            String validator = getValidator(previous);
+            if (validator != null)
+                request.header("If-Range", validator);
+        }
+
+        try (HttpResponse response = Http.getTransport().send(request)) {
+            boolean append = false;
+            if (existing > 0) {
+                if (response.getStatus() == 206)
+                    append = true;
+                else if (response.getStatus() == 416) {
+                    // nothing left to fetch; the partial file is either complete or useless
+                    if (Util.toHex(digest.digest()).equalsIgnoreCase(sha1)) {
+                        commit(part, journal, target);
+                        progress.update(1);
+                        return;
+                    }
+                    Files.deleteIfExists(part);
+                    Files.deleteIfExists(journal);
+                    throw new IOException("Discarded invalid partial download of " + url);
+                }
+            }
+
+            response.checkStatus(request);
+            if (!append) {
+                existing = 0;
+                digest.reset();
+            }
+
+            writeJournal(journal, url, sha1, response);
+
+            try (InputStream in = response.getBody();
+                    OutputStream out = new DigestOutputStream(Files.newOutputStream(part, StandardOpenOption.CREATE,
+                            StandardOpenOption.WRITE,
+                            append ? StandardOpenOption.APPEND : StandardOpenOption.TRUNCATE_EXISTING), digest)) {
+                long remaining = Math.max(1, size - existing);
+                Util.progressiveCopy(in, out, remaining, null,
+                        progress.subprogress(size > 0 ? (float) existing / size : 0, 1));
+            }
+        }
+
+        String actual = Util.toHex(digest.digest());
+        if (!actual.equalsIgnoreCase(sha1)) {
+            Files.deleteIfExists(part);
+            Files.deleteIfExists(journal);
+            progress.update(0);
+            throw new IOException("Hash mismatch for " + url + ": expected " + sha1 + ", got " + actual);
+        }
+
+        commit(part, journal, target);
+    }
+
+    /**
+     * Deletes the partial download of a file, if there is one.
+     */
+    public static void discard(Path target) throws IOException {
+        Files.deleteIfExists(target.resolveSibling(target.getFileName() + PART_SUFFIX));
+        Files.deleteIfExists(target.resolveSibling(target.getFileName() + JOURNAL_SUFFIX));
+    }
+
+    private static long hashPrefix(Path part, long length, MessageDigest digest) throws IOException {
+        long read = 0;
+        try (InputStream in = Files.newInputStream(part)) {
+            int count;
+            byte[] buffer = new byte[8192];
+            while (read < length && (count = in.read(buffer, 0, (int) Math.min(buffer.length, length - read))) != -1) {
+                digest.update(buffer, 0, count);
+                read += count;
+            }
+        }
+        return read;
+    }
+
+    private static void commit(Path part, Path journal, Path target) throws IOException {
+        Util.moveAtomically(part, target);
+        Files.deleteIfExists(journal);
+    }
+
+    private static String getValidator(JsonObject journal) {
+        if (journal == null)
+            return null;
+
+        return journal.getOpt("etag").map(JsonValue::getStringValue)
+                .orElseGet(() -> journal.getOpt("lastModified").map(JsonValue::getStringValue).orElse(null));
+    }
+
+    private static JsonObject readJournal(Path journal) {
+        if (!Files.isRegularFile(journal))
+            return null;
+
+        try (InputStream in = Files.newInputStream(journal)) {
+            return JsonDeserializer.read(in, StandardCharsets.UTF_8).asObject();
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static void writeJournal(Path journal, URL url, String sha1, HttpResponse response)
+            throws IOException {
+        JsonObject obj = JsonObject.of("url", url.toString(), "sha1", sha1);
+        String etag = response.getHeader("ETag");
+        String lastModified = response.getHeader("Last-Modified");
+        // weak validators cannot be used with If-Range
+        if (etag != null && !etag.startsWith("W/"))
+            obj.put("etag", etag);
+        if (lastModified != null)
+            obj.put("lastModified", lastModified);
+
+        try (OutputStream out = Files.newOutputStream(journal)) {
+            JsonSerializer.write(obj, out, StandardCharsets.UTF_8);
+        }
+    }
+}
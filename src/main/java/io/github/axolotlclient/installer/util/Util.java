@@ -27,18 +27,29 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.URL;
-import java.net.URLConnection;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.Arrays;
-import java.util.List;
-import java.util.stream.Collectors;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.zip.CRC32;
 
 import io.github.axolotlclient.installer.ProgressConsumer;
+import io.github.axolotlclient.installer.http.Http;
 
 public final class Util {
 
     public static final String USER_AGENT = "AxolotlClient";
+    // large enough that a fast disk or network is not held up by the number of reads
+    private static final int BUFFER_SIZE = 64 * 1024;
 
     public static Path checkParent(Path parent, Path path) {
         if (!parent.resolve(path).normalize().startsWith(parent.normalize()))
@@ -58,24 +69,102 @@ public final class Util {
         }
     }
 
+    /**
+     * Reads a stream of unknown size fully.
+     */
     public static byte[] readBytes(InputStream in) throws IOException {
-        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        return readBytes(in, 0);
+    }
+
+    /**
+     * Reads a stream fully.
+     * @param expectedSize the expected size, or 0 if it is unknown.
+     */
+    public static byte[] readBytes(InputStream in, int expectedSize) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(32, expectedSize));
         copy(in, out);
         return out.toByteArray();
     }
 
     public static void copy(InputStream in, OutputStream out) throws IOException {
         int length;
-        byte[] buffer = new byte[8192];
+        byte[] buffer = new byte[BUFFER_SIZE];
         while ((length = in.read(buffer)) != -1)
             out.write(buffer, 0, length);
     }
 
+    /**
+     * Writes a stream to a file. An existing file is deleted first rather than overwritten, since it may be a
+     * hard link shared with other files.
+     */
+    public static void copy(InputStream in, Path target) throws IOException {
+        Files.deleteIfExists(target);
+        try (OutputStream out = Files.newOutputStream(target, StandardOpenOption.CREATE_NEW)) {
+            copy(in, out);
+        }
+    }
+
+    /**
+     * Copies a file, letting the kernel move the data where the platform supports it. An existing target is
+     * deleted first rather than overwritten, since it may be a hard link shared with other files.
+     */
+    public static void copyFile(Path source, Path target) throws IOException {
+        try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ)) {
+            Files.deleteIfExists(target);
+            try (FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                long size = in.size();
+                long position = 0;
+                while (position < size) {
+                    long count = in.transferTo(position, size - position, out);
+                    // the source was truncated in the meantime
+                    if (count <= 0)
+                        break;
+                    position += count;
+                }
+            }
+        }
+    }
+
+    /**
+     * Moves a file over the target, atomically where the file system supports it.
+     */
+    public static void moveAtomically(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Writes a file next to the target and then moves it over the target, so that the target never contains a
+     * partial write. The data is flushed to disk before it is moved.
+     */
+    public static void writeAtomically(Path target, IOConsumer<OutputStream> writer) throws IOException {
+        Path temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE);
+                    OutputStream out = Channels.newOutputStream(channel)) {
+                writer.accept(out);
+                out.flush();
+                channel.force(true);
+            }
+            moveAtomically(temp, target);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
     public static void progressiveCopy(InputStream in, OutputStream out, int max, String message, ProgressConsumer progress)
             throws IOException {
+        progressiveCopy(in, out, (long) max, message, progress);
+    }
+
+    public static void progressiveCopy(InputStream in, OutputStream out, long max, String message,
+            ProgressConsumer progress) throws IOException {
         long read = 0;
         int length;
-        byte[] buffer = new byte[8192];
+        byte[] buffer = new byte[BUFFER_SIZE];
         while ((length = in.read(buffer)) != -1) {
             out.write(buffer, 0, length);
             read += length;
@@ -83,29 +172,74 @@ public final class Util {
         }
     }
 
-    public static int[] parseVersion(String version) {
-        // This not only supports SemVer, but also any frankenstein-ed mutations people could come up with.
-        // Only requirement: it needs to contain some numbers somewhere.
-        String[] parts = version
-                .replaceAll("_", ".0") // not sure about this one, but it corrects the placement of "experimental" versions
-                .replaceAll("\\D", ".")
-                .replaceAll("\\.\\.+", ".")
-                .replaceAll("\\.$", "").replaceAll("^\\.", "")
-                .split("\\.");
-
-        int[] versionParts = new int[parts.length];
+    public static MessageDigest sha1() {
+        try {
+            return MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            // every JVM is required to support SHA-1
+            throw new IllegalStateException(e);
+        }
+    }
 
-        List<Integer> list = Arrays.stream(parts).map(Integer::parseInt).collect(Collectors.toList());
+    public static String sha1(Path path) throws IOException {
+        MessageDigest digest = sha1();
+        try (InputStream in = Files.newInputStream(path)) {
+            int length;
+            byte[] buffer = new byte[BUFFER_SIZE];
+            while ((length = in.read(buffer)) != -1)
+                digest.update(buffer, 0, length);
+        }
+        return toHex(digest.digest());
+    }
 
-        for (int i = 0; i < parts.length; i++) {
-            versionParts[i] = list.get(i);
+    public static long crc32(Path path) throws IOException {
+        CRC32 crc = new CRC32();
+        try (InputStream in = Files.newInputStream(path)) {
+            int length;
+            byte[] buffer = new byte[BUFFER_SIZE];
+            while ((length = in.read(buffer)) != -1)
+                crc.update(buffer, 0, length);
         }
-        return versionParts;
+        return crc.getValue();
+    }
+
+    /**
+     * Deletes a directory and everything in it, if it exists.
+     */
+    public static void deleteTree(Path dir) throws IOException {
+        if (!Files.exists(dir))
+            return;
+
+        Files.walkFileTree(dir, new SimpleFileVisitor<Path>() {
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                Files.delete(file);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path file, IOException e) throws IOException {
+                if (e != null)
+                    throw e;
+
+                Files.delete(file);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    public static String toHex(byte[] bytes) {
+        StringBuilder result = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes)
+            result.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        return result.toString();
     }
 
+    /**
+     * Opens a stream to a URL using the installer's {@link Http#getTransport() transport}.
+     */
     public static InputStream openStream(URL url) throws IOException {
-        URLConnection connection = url.openConnection();
-        connection.setRequestProperty("User-Agent", USER_AGENT);
-        return connection.getInputStream();
+        return Http.get(url).getBody();
     }
 }
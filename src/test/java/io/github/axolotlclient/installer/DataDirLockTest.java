@@ -0,0 +1,96 @@
+/*
+ * Copyright © 2023-2023 moehreag <moehreag@gmail.com>, TheKodeToad <TheKodeToad@proton.me> & Contributors
+ *
+ * This file is part of AxolotlClient Installer.
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ * For more information, see the LICENSE file.
+ */
+
+package io.github.axolotlclient.installer;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class DataDirLockTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void sharedHoldersDoNotExcludeEachOther() throws Exception {
+        try (DataDirLock first = DataDirLock.shared(dir); DataDirLock second = DataDirLock.shared(dir)) {
+            assertNull(DataDirLock.tryExclusive(dir));
+        }
+
+        try (DataDirLock exclusive = DataDirLock.tryExclusive(dir)) {
+            assertNotNull(exclusive);
+            assertNull(DataDirLock.tryExclusive(dir));
+        }
+    }
+
+    @Test
+    void exclusiveWaitsForSharedHolders() throws Exception {
+        AtomicBoolean acquired = new AtomicBoolean();
+        CountDownLatch done = new CountDownLatch(1);
+        Thread collector;
+        try (DataDirLock shared = DataDirLock.shared(dir)) {
+            collector = new Thread(() -> {
+                try (DataDirLock exclusive = DataDirLock.exclusive(dir)) {
+                    acquired.set(true);
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                } finally {
+                    done.countDown();
+                }
+            });
+            collector.start();
+            assertFalse(done.await(100, TimeUnit.MILLISECONDS));
+            assertFalse(acquired.get());
+        }
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertTrue(acquired.get());
+        collector.join();
+    }
+
+    @Test
+    void sharedWaitsForExclusiveHolder() throws Exception {
+        CountDownLatch done = new CountDownLatch(1);
+        try (DataDirLock exclusive = DataDirLock.exclusive(dir)) {
+            new Thread(() -> {
+                try (DataDirLock shared = DataDirLock.shared(dir)) {
+                    done.countDown();
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            }).start();
+            assertFalse(done.await(100, TimeUnit.MILLISECONDS));
+        }
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright © 2023-2023 moehreag <moehreag@gmail.com>, TheKodeToad <TheKodeToad@proton.me> & Contributors
+ *
+ * This file is part of AxolotlClient Installer.
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ * For more information, see the LICENSE file.
+ */
+
+package io.github.axolotlclient.installer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class InstallManifestTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void readsWhatWasWritten() throws IOException {
+        Map<String, String> files = new LinkedHashMap<>();
+        files.put("mods/a.jar", "aa00000000000000000000000000000000000001");
+        files.put("mods/b.jar", "bb00000000000000000000000000000000000002");
+        // CRC-32s are unsigned, so they do not fit an int
+        Map<String, Long> overrides = Collections.singletonMap("config/a.txt", 0xFFFFFFFFL);
+
+        new InstallManifest("1.0", files, overrides).write(dir);
+        InstallManifest read = InstallManifest.read(dir);
+
+        assertEquals("1.0", read.getPackVersion());
+        assertEquals(files, read.getFiles());
+        assertEquals(overrides, read.getOverrides());
+    }
+
+    @Test
+    void ignoresMissingAndUnreadableManifests() throws IOException {
+        assertNull(InstallManifest.read(dir));
+
+        Files.write(dir.resolve(InstallManifest.FILE_NAME), "{".getBytes(StandardCharsets.UTF_8));
+        assertNull(InstallManifest.read(dir));
+
+        Files.write(dir.resolve(InstallManifest.FILE_NAME),
+                "{\"formatVersion\":99,\"files\":{},\"overrides\":{}}".getBytes(StandardCharsets.UTF_8));
+        assertNull(InstallManifest.read(dir));
+    }
+
+    @Test
+    void normalizesKeys() {
+        assertEquals("mods/a.jar", InstallManifest.key(Paths.get("mods/./a.jar")));
+        assertEquals("mods/a.jar", InstallManifest.key(Paths.get("config/../mods/a.jar")));
+    }
+}
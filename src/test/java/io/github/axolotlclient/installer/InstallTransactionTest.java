@@ -0,0 +1,149 @@
+/*
+ * Copyright © 2023-2023 moehreag <moehreag@gmail.com>, TheKodeToad <TheKodeToad@proton.me> & Contributors
+ *
+ * This file is part of AxolotlClient Installer.
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ * For more information, see the LICENSE file.
+ */
+
+package io.github.axolotlclient.installer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class InstallTransactionTest {
+
+    @TempDir
+    Path dir;
+    private Path root;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        root = dir.resolve("game");
+        Files.createDirectories(root.resolve("mods"));
+        write(root.resolve("mods/a.jar"), "old a");
+        write(root.resolve("mods/b.jar"), "old b");
+    }
+
+    @Test
+    void commitsStagedFilesAndDeletes() throws IOException {
+        try (InstallTransaction transaction = InstallTransaction.begin(root)) {
+            write(transaction.stage("mods/a.jar"), "new a");
+            write(transaction.stage("mods/c.jar"), "new c");
+            transaction.delete("mods/b.jar");
+            transaction.commit();
+        }
+
+        assertEquals("new a", read(root.resolve("mods/a.jar")));
+        assertEquals("new c", read(root.resolve("mods/c.jar")));
+        assertFalse(Files.exists(root.resolve("mods/b.jar")));
+        assertEquals(1, countEntries(dir));
+    }
+
+    @Test
+    void rollsBackCommit() throws IOException {
+        try (InstallTransaction transaction = InstallTransaction.begin(root)) {
+            write(transaction.stage("mods/a.jar"), "new a");
+            write(transaction.stage("mods/c.jar"), "new c");
+            transaction.delete("mods/b.jar");
+            transaction.commit();
+            transaction.rollback();
+        }
+
+        assertEquals("old a", read(root.resolve("mods/a.jar")));
+        assertEquals("old b", read(root.resolve("mods/b.jar")));
+        assertFalse(Files.exists(root.resolve("mods/c.jar")));
+    }
+
+    @Test
+    void finishesInterruptedCommit() throws IOException {
+        // what a commit leaves behind if the process dies after writing its journal
+        Path leftover = dir.resolve(".game-install-1");
+        write(Files.createDirectories(leftover.resolve("staged/mods")).resolve("a.jar"), "new a");
+        write(leftover.resolve("commit"), "mods/b.jar");
+
+        InstallTransaction.begin(root).close();
+
+        assertEquals("new a", read(root.resolve("mods/a.jar")));
+        assertFalse(Files.exists(root.resolve("mods/b.jar")));
+        assertFalse(Files.exists(leftover));
+    }
+
+    @Test
+    void discardsUncommittedLeftovers() throws IOException {
+        Path leftover = dir.resolve(".game-install-1");
+        write(Files.createDirectories(leftover.resolve("staged/mods")).resolve("a.jar"), "new a");
+
+        InstallTransaction.begin(root).close();
+
+        assertEquals("old a", read(root.resolve("mods/a.jar")));
+        assertFalse(Files.exists(leftover));
+    }
+
+    @Test
+    void recoversGameDirsWithGlobSyntaxInTheirName() throws IOException {
+        Path game = Files.createDirectories(dir.resolve("game [1.20]{a,b}"));
+        Path leftover = dir.resolve(".game [1.20]{a,b}-install-1");
+        write(Files.createDirectories(leftover.resolve("staged/mods")).resolve("a.jar"), "new a");
+        write(leftover.resolve("commit"), "");
+
+        InstallTransaction.begin(game).close();
+
+        assertEquals("new a", read(game.resolve("mods/a.jar")));
+        assertFalse(Files.exists(leftover));
+        // the leftovers of other game dirs are not touched
+        assertTrue(Files.isDirectory(root));
+    }
+
+    @Test
+    void leavesRunningInstallsAlone() throws IOException {
+        try (InstallTransaction running = InstallTransaction.begin(root)) {
+            write(running.stage("mods/a.jar"), "new a");
+
+            InstallTransaction.begin(root).close();
+
+            assertTrue(Files.isRegularFile(running.stage("mods/a.jar")));
+        }
+        assertEquals(1, countEntries(dir));
+    }
+
+    private static long countEntries(Path dir) throws IOException {
+        try (Stream<Path> stream = Files.list(dir)) {
+            return stream.count();
+        }
+    }
+
+    private static void write(Path path, String content) throws IOException {
+        Files.createDirectories(path.getParent());
+        Files.write(path, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String read(Path path) throws IOException {
+        return new String(Files.readAllBytes(path), StandardCharsets.UTF_8);
+    }
+}
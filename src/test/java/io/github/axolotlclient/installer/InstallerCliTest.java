@@ -0,0 +1,158 @@
+/*
+ * Copyright © 2023-2023 moehreag <moehreag@gmail.com>, TheKodeToad <TheKodeToad@proton.me> & Contributors
+ *
+ * This file is part of AxolotlClient Installer.
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ * For more information, see the LICENSE file.
+ */
+
+package io.github.axolotlclient.installer;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Map;
+
+import io.github.axolotlclient.installer.http.BundleWriter;
+import io.github.axolotlclient.installer.http.Http;
+import io.github.axolotlclient.installer.http.HttpTransport;
+import io.github.axolotlclient.installer.modrinth.api.ProjectVersion;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class InstallerCliTest {
+
+    private static final byte[] MOD = TestPacks.data("mod", 1000);
+
+    @TempDir
+    Path dir;
+    private HttpTransport previous;
+    private ByteArrayOutputStream output;
+
+    @BeforeEach
+    void setUp() {
+        // bundles replace the transport for the rest of the process
+        previous = Http.getTransport();
+        output = new ByteArrayOutputStream();
+    }
+
+    @AfterEach
+    void tearDown() {
+        Http.setTransport(previous);
+    }
+
+    @Test
+    void onlyRecognisedOptionsSwitchToHeadlessMode() {
+        assertFalse(InstallerCli.isHeadless(new String[0]));
+        // passed by macOS to apps it launches
+        assertFalse(InstallerCli.isHeadless(new String[] {"-psn_0_12345"}));
+        assertTrue(InstallerCli.isHeadless(new String[] {"--list"}));
+        assertTrue(InstallerCli.isHeadless(new String[] {"--game-dir", "a", "--game-version", "1.20.1"}));
+        assertTrue(InstallerCli.isHeadless(new String[] {"--cli"}));
+        assertTrue(InstallerCli.isHeadless(new String[] {"-psn_0_12345", "--headless"}));
+    }
+
+    @Test
+    void rejectsInvalidArguments() {
+        assertEquals(2, run("--unknown"));
+        assertEquals(2, run("--cli"));
+        assertEquals(2, run("--game-version", "1.20.1"));
+        assertEquals(2, run("--export", "bundle.zip"));
+        assertEquals(2, run("--game-dir"));
+        assertEquals(2, run("--list", "--channel", "nightly"));
+    }
+
+    @Test
+    void installsFromABundle() throws IOException {
+        Path bundle = writeBundle();
+        Path gameDir = dir.resolve("game");
+
+        assertEquals(0, run("--headless", "--game-version", "1.20.1", "--game-dir", gameDir.toString(),
+                "--launcher-dir", dir.resolve("launcher").toString(), "--bundle", bundle.toString()));
+
+        assertArrayEquals(MOD, Files.readAllBytes(gameDir.resolve("mods/a.jar")));
+        assertTrue(output().contains("installed\t" + gameDir.toAbsolutePath()));
+    }
+
+    @Test
+    void onlyOffersBundledVersions() throws IOException {
+        Path bundle = writeBundle();
+
+        String launcherDir = dir.resolve("launcher").toString();
+        assertEquals(0, run("--list", "--launcher-dir", launcherDir, "--bundle", bundle.toString()));
+        assertEquals("1.20.1", output().trim());
+
+        // the newer beta is listed, but its files are not in the bundle
+        output.reset();
+        assertEquals(0, run("--list", "--channel", "beta", "--launcher-dir", launcherDir, "--bundle",
+                bundle.toString()));
+        assertEquals("", output().trim());
+
+        output.reset();
+        assertEquals(1, run("--channel", "beta", "--game-version", "1.20.1", "--game-dir",
+                dir.resolve("game").toString(), "--launcher-dir", launcherDir, "--bundle", bundle.toString()));
+        assertTrue(output().startsWith("error\tThe bundle has no beta version for Minecraft 1.20.1"));
+    }
+
+    /**
+     * Writes a bundle of a release, listed after a newer beta which is not in it.
+     */
+    private Path writeBundle() throws IOException {
+        Map<String, byte[]> mods = Collections.singletonMap("mods/a.jar", MOD);
+        byte[] pack = TestPacks.pack("1.0", mods, Collections.emptyMap());
+        String release = TestPacks.versionList(pack);
+        String beta = "{\"game_versions\":[\"1.20.1\"],\"version_type\":\"beta\",\"files\":[{\"url\":\""
+                + TestPacks.CDN + "beta.mrpack\",\"hashes\":{\"sha1\":\"" + TestPacks.sha1(new byte[1])
+                + "\"},\"size\":1,\"primary\":true}]}";
+        String versionList = "[" + beta + "," + release.substring(1);
+
+        Path bundle = dir.resolve("bundle.zip");
+        try (BundleWriter writer = new BundleWriter(bundle)) {
+            add(writer, ProjectVersion.query("axolotlclient-modpack").toUrl().toString(),
+                    versionList.getBytes(StandardCharsets.UTF_8));
+            add(writer, TestPacks.PACK_URL, pack);
+            add(writer, TestPacks.CDN + "mods/a.jar", MOD);
+            add(writer, TestPacks.LOADER_URL, "{\"id\":\"quilt-loader-0.19.0-1.20.1\"}"
+                    .getBytes(StandardCharsets.UTF_8));
+        }
+        return bundle;
+    }
+
+    private void add(BundleWriter writer, String url, byte[] data) throws IOException {
+        Path file = Files.write(Files.createTempFile(dir, "bundled", null), data);
+        writer.add(Collections.singletonList(url), file);
+    }
+
+    private int run(String... args) {
+        return new InstallerCli(new PrintStream(output, true)).run(args);
+    }
+
+    private String output() {
+        return new String(output.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,282 @@
+/*
+ * Copyright © 2023-2023 moehreag <moehreag@gmail.com>, TheKodeToad <TheKodeToad@proton.me> & Contributors
+ *
+ * This file is part of AxolotlClient Installer.
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ * For more information, see the LICENSE file.
+ */
+
+package io.github.axolotlclient.installer;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import io.github.axolotlclient.installer.http.FakeTransport;
+import io.github.axolotlclient.installer.http.Http;
+import io.github.axolotlclient.installer.http.HttpRequest;
+import io.github.axolotlclient.installer.http.HttpTransport;
+import io.github.axolotlclient.installer.util.DownloadCache;
+import io.github.axolotlclient.installer.util.Translate;
+import io.github.axolotlclient.installer.util.Util;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class InstallerTest {
+
+    @TempDir
+    Path dir;
+    private HttpTransport previous;
+    private FakeTransport fake;
+    private Path launcherDir;
+    private Map<String, byte[]> mods;
+
+    @BeforeEach
+    void setUp() {
+        previous = Http.getTransport();
+        fake = new FakeTransport();
+        Http.setTransport(fake);
+        launcherDir = dir.resolve("launcher");
+
+        mods = new LinkedHashMap<>();
+        mods.put("mods/a.jar", TestPacks.data("a", 100_000));
+        mods.put("mods/b.jar", TestPacks.data("b", 5_000));
+    }
+
+    @AfterEach
+    void tearDown() {
+        Http.setTransport(previous);
+    }
+
+    @Test
+    void installsIntoSeveralGameDirsDownloadingEachFileOnce() throws IOException {
+        byte[] pack = TestPacks.pack("1.0", mods, Collections.singletonMap("overrides/config/a.txt", "A"));
+        TestPacks.serve(fake, pack, mods);
+        Path first = dir.resolve("first");
+        Path second = dir.resolve("second");
+
+        install(pack, first, second);
+
+        for (Path gameDir : Arrays.asList(first, second)) {
+            for (Map.Entry<String, byte[]> mod : mods.entrySet())
+                assertArrayEquals(mod.getValue(), Files.readAllBytes(gameDir.resolve(mod.getKey())));
+            assertEquals("A", read(gameDir.resolve("config/a.txt")));
+        }
+        for (String path : mods.keySet())
+            assertEquals(1L, countRequests(TestPacks.CDN + path), path);
+    }
+
+    @Test
+    void updatesOnlyWhatChanged() throws IOException {
+        Path gameDir = dir.resolve("game");
+        byte[] first = TestPacks.pack("1.0", mods, Collections.emptyMap());
+        TestPacks.serve(fake, first, mods);
+        install(first, gameDir);
+        Files.write(gameDir.resolve("mods/own.jar"), "own".getBytes(StandardCharsets.UTF_8));
+        Object unchanged = fileKey(gameDir.resolve("mods/a.jar"));
+
+        Map<String, byte[]> updated = new LinkedHashMap<>();
+        updated.put("mods/a.jar", mods.get("mods/a.jar"));
+        updated.put("mods/c.jar", TestPacks.data("c", 2000));
+        byte[] second = TestPacks.pack("2.0", updated, Collections.emptyMap());
+        TestPacks.serve(fake, second, updated);
+        install(second, gameDir);
+
+        // left in place rather than replaced with the same file
+        assertEquals(unchanged, fileKey(gameDir.resolve("mods/a.jar")));
+        assertArrayEquals(updated.get("mods/c.jar"), Files.readAllBytes(gameDir.resolve("mods/c.jar")));
+        // removed from the pack, unlike what the user added
+        assertFalse(Files.exists(gameDir.resolve("mods/b.jar")));
+        assertEquals("own", read(gameDir.resolve("mods/own.jar")));
+        assertEquals("2.0", InstallManifest.read(gameDir).getPackVersion());
+    }
+
+    @Test
+    void removesOnlyUneditedOverridesDroppedFromThePack() throws IOException {
+        Path gameDir = dir.resolve("game");
+        Map<String, String> overrides = new LinkedHashMap<>();
+        overrides.put("overrides/config/x.txt", "X");
+        overrides.put("overrides/config/y.txt", "Y");
+        byte[] first = TestPacks.pack("1.0", mods, overrides);
+        TestPacks.serve(fake, first, mods);
+        install(first, gameDir);
+        Files.write(gameDir.resolve("config/y.txt"), "edited".getBytes(StandardCharsets.UTF_8));
+
+        byte[] second = TestPacks.pack("2.0", mods, Collections.emptyMap());
+        TestPacks.serve(fake, second, mods);
+        install(second, gameDir);
+
+        assertFalse(Files.exists(gameDir.resolve("config/x.txt")));
+        assertEquals("edited", read(gameDir.resolve("config/y.txt")));
+    }
+
+    @Test
+    void keepsEditedOverridesUntilThePackChangesThem() throws IOException {
+        Path gameDir = dir.resolve("game");
+        byte[] first = TestPacks.pack("1.0", mods, Collections.singletonMap("overrides/config/a.txt", "A"));
+        TestPacks.serve(fake, first, mods);
+        install(first, gameDir);
+        Files.write(gameDir.resolve("config/a.txt"), "edited".getBytes(StandardCharsets.UTF_8));
+
+        byte[] same = TestPacks.pack("2.0", mods, Collections.singletonMap("overrides/config/a.txt", "A"));
+        TestPacks.serve(fake, same, mods);
+        install(same, gameDir);
+        assertEquals("edited", read(gameDir.resolve("config/a.txt")));
+
+        byte[] changed = TestPacks.pack("3.0", mods, Collections.singletonMap("overrides/config/a.txt", "B"));
+        TestPacks.serve(fake, changed, mods);
+        install(changed, gameDir);
+        assertEquals("B", read(gameDir.resolve("config/a.txt")));
+    }
+
+    @Test
+    void failsWithoutTouchingTheGameDirWhenAHashIsWrong() throws IOException {
+        byte[] pack = TestPacks.pack("1.0", mods, Collections.emptyMap());
+        TestPacks.serve(fake, pack, mods);
+        byte[] corrupt = mods.get("mods/b.jar").clone();
+        corrupt[0] ^= 1;
+        fake.serve(TestPacks.CDN + "mods/b.jar", corrupt);
+        Path gameDir = dir.resolve("game");
+
+        assertThrows(IOException.class, () -> install(pack, gameDir));
+
+        assertFalse(Files.exists(gameDir.resolve("mods/a.jar")));
+        assertFalse(InstallManifest.exists(gameDir));
+    }
+
+    @Test
+    void overrideOwnsItsPath() throws IOException {
+        Map<String, byte[]> mod = Collections.singletonMap("mods/x.jar", "mod".getBytes(StandardCharsets.UTF_8));
+        Path gameDir = dir.resolve("game");
+
+        byte[] overridden = TestPacks.pack("1.0", mod, Collections.singletonMap("overrides/mods/x.jar", "override"));
+        TestPacks.serve(fake, overridden, mod);
+        install(overridden, gameDir);
+        assertEquals("override", read(gameDir.resolve("mods/x.jar")));
+        assertEquals(0L, countRequests(TestPacks.CDN + "mods/x.jar"));
+
+        // the path changes owner from the override to the mod, and back
+        byte[] plain = TestPacks.pack("2.0", mod, Collections.emptyMap());
+        TestPacks.serve(fake, plain, mod);
+        install(plain, gameDir);
+        assertEquals("mod", read(gameDir.resolve("mods/x.jar")));
+
+        TestPacks.serve(fake, overridden, mod);
+        install(overridden, gameDir);
+        assertEquals("override", read(gameDir.resolve("mods/x.jar")));
+    }
+
+    @Test
+    void collectsTheFilesOfRemovedGameDirs() throws IOException {
+        Map<String, byte[]> kept = Collections.singletonMap("mods/a.jar", mods.get("mods/a.jar"));
+        Map<String, byte[]> dropped = Collections.singletonMap("mods/b.jar", mods.get("mods/b.jar"));
+        byte[] first = TestPacks.pack("1.0", kept, Collections.emptyMap());
+        TestPacks.serve(fake, first, kept);
+        install(first, dir.resolve("first"));
+        byte[] second = TestPacks.pack("2.0", dropped, Collections.emptyMap());
+        TestPacks.serve(fake, second, dropped);
+        install(second, dir.resolve("second"));
+
+        Util.deleteTree(dir.resolve("second"));
+        assertTrue(Installer.collectGarbage(launcherDir) > 0);
+
+        DownloadCache cache = new DownloadCache(Installer.getDataDir(launcherDir).resolve("files"));
+        assertNotNull(cache.get(TestPacks.sha1(kept.get("mods/a.jar"))));
+        assertNull(cache.get(TestPacks.sha1(dropped.get("mods/b.jar"))));
+        String instances = read(Installer.getDataDir(launcherDir).resolve("instances.json"));
+        assertTrue(instances.contains("first"));
+        assertFalse(instances.contains("second"));
+    }
+
+    @Test
+    void prefetchesLoaderProfilesForInstalls() throws IOException {
+        byte[] pack = TestPacks.pack("1.0", mods, Collections.emptyMap());
+        TestPacks.serve(fake, pack, mods);
+        TestPacks.serveVersionList(fake, pack);
+        Installer installer = new Installer(dir.resolve("data"));
+        installer.loadUncached();
+
+        List<String> messages = new ArrayList<>();
+        assertEquals(1, installer.prefetchLoaderProfiles(launcherDir, (message, progress) -> {
+            if (message != null)
+                messages.add(message);
+        }));
+        assertEquals(Collections.singletonList(Translate.tr("prefetching_loaders")),
+                messages.stream().distinct().collect(Collectors.toList()));
+        DownloadCache cache = new DownloadCache(Installer.getDataDir(launcherDir).resolve("files"));
+        assertNotNull(cache.get(TestPacks.sha1(pack)));
+
+        installer.install(installer.getModVerForGameVer("1.20.1"), launcherDir,
+                Collections.singletonList(dir.resolve("game")), ProgressConsumer.NONE);
+        assertEquals(1L, countRequests(TestPacks.LOADER_URL));
+        assertEquals(1L, countRequests(TestPacks.PACK_URL));
+    }
+
+    @Test
+    void sharesLoaderProfilesBetweenLauncherDirs() throws IOException {
+        byte[] pack = TestPacks.pack("1.0", mods, Collections.emptyMap());
+        TestPacks.serve(fake, pack, mods);
+        Path otherLauncherDir = dir.resolve("other-launcher");
+
+        install(pack, dir.resolve("game"));
+        new Installer(dir.resolve("data")).install(TestPacks.version(pack), otherLauncherDir,
+                Collections.singletonList(dir.resolve("other-game")), ProgressConsumer.NONE);
+
+        Path profile = Paths.get("versions", "quilt-loader-0.19.0-1.20.1", "quilt-loader-0.19.0-1.20.1.json");
+        assertArrayEquals(Files.readAllBytes(launcherDir.resolve(profile)),
+                Files.readAllBytes(otherLauncherDir.resolve(profile)));
+        assertEquals(1L, countRequests(TestPacks.LOADER_URL));
+    }
+
+    private void install(byte[] pack, Path... gameDirs) throws IOException {
+        new Installer(dir.resolve("data")).install(TestPacks.version(pack), launcherDir, Arrays.asList(gameDirs),
+                ProgressConsumer.NONE);
+    }
+
+    private long countRequests(String url) {
+        return fake.getRequests().stream().map(HttpRequest::getUrl).filter(requested -> requested.toString()
+                .equals(url)).count();
+    }
+
+    private static Object fileKey(Path path) throws IOException {
+        return Files.readAttributes(path, BasicFileAttributes.class).fileKey();
+    }
+
+    private static String read(Path path) throws IOException {
+        return new String(Files.readAllBytes(path), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright © 2023-2023 moehreag <moehreag@gmail.com>, TheKodeToad <TheKodeToad@proton.me> & Contributors
+ *
+ * This file is part of AxolotlClient Installer.
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ * For more information, see the LICENSE file.
+ */
+
+package io.github.axolotlclient.installer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import io.toadlabs.jfgjds.JsonDeserializer;
+import io.toadlabs.jfgjds.data.JsonObject;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class LauncherProfileStoreTest {
+
+    private static final String CREATED = "2020-01-01T00:00:00.000Z";
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void mergesIntoTheExistingProfiles() throws IOException {
+        write("{\"profiles\":{\"own\":{\"name\":\"Own\",\"lastVersionId\":\"1.20.1\"},\"axolotlclient\":{\"name\":"
+                + "\"Old\",\"lastVersionId\":\"old\",\"created\":\"" + CREATED + "\"}},\"settings\":{\"locale\":"
+                + "\"en-us\"},\"version\":3}");
+
+        LauncherProfileStore store = new LauncherProfileStore(dir, "Furnace");
+        store.put("axolotlclient", "AxolotlClient", "quilt-loader-0.19.0-1.20.1", dir.resolve("game"));
+        store.put("axolotlclient-1.8.9", "AxolotlClient 1.8.9", "fabric-loader-0.14.21-1.8.9", dir.resolve("old"));
+        store.commit();
+
+        JsonObject profiles = read();
+        JsonObject map = profiles.get("profiles").asObject();
+        assertEquals("en-us", profiles.get("settings").asObject().get("locale").getStringValue());
+        assertEquals("Own", map.get("own").asObject().get("name").getStringValue());
+
+        JsonObject replaced = map.get("axolotlclient").asObject();
+        assertEquals("quilt-loader-0.19.0-1.20.1", replaced.get("lastVersionId").getStringValue());
+        assertEquals("Furnace", replaced.get("icon").getStringValue());
+        assertEquals(dir.resolve("game").toAbsolutePath().toString(), replaced.get("gameDir").getStringValue());
+        // the launcher sorts by it, so an update must not make the profile look new
+        assertEquals(CREATED, replaced.get("created").getStringValue());
+        assertTrue(map.get("axolotlclient-1.8.9").asObject().contains("created"));
+    }
+
+    @Test
+    void movesUnreadableProfilesAside() throws IOException {
+        write("{\"profiles\":");
+
+        LauncherProfileStore store = new LauncherProfileStore(dir, "Furnace");
+        store.put("axolotlclient", "AxolotlClient", "quilt-loader-0.19.0-1.20.1", dir.resolve("game"));
+        store.commit();
+
+        assertEquals("{\"profiles\":", new String(Files.readAllBytes(dir.resolve(LauncherProfileStore.FILE_NAME
+                + ".bak")), StandardCharsets.UTF_8));
+        assertTrue(read().get("profiles").asObject().contains("axolotlclient"));
+    }
+
+    @Test
+    void keepsConcurrentCommits() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                String id = "profile-" + i;
+                futures.add(executor.submit(() -> {
+                    LauncherProfileStore store = new LauncherProfileStore(dir, "Furnace");
+                    store.put(id, id, "1.20.1", dir.resolve(id));
+                    store.commit();
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures)
+                future.get();
+        } finally {
+            executor.shutdown();
+        }
+
+        JsonObject map = read().get("profiles").asObject();
+        for (int i = 0; i < 16; i++)
+            assertTrue(map.contains("profile-" + i), "profile-" + i);
+        assertFalse(Files.exists(dir.resolve(LauncherProfileStore.FILE_NAME + ".bak")));
+    }
+
+    @Test
+    void writesNothingWithoutProfiles() throws IOException {
+        new LauncherProfileStore(dir, "Furnace").commit();
+
+        assertFalse(Files.exists(dir.resolve(LauncherProfileStore.FILE_NAME)));
+        assertFalse(Files.exists(dir.resolve(LauncherProfileStore.FILE_NAME + ".lock")));
+    }
+
+    private void write(String json) throws IOException {
+        Files.write(dir.resolve(LauncherProfileStore.FILE_NAME), json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private JsonObject read() throws IOException {
+        try (InputStream in = Files.newInputStream(dir.resolve(LauncherProfileStore.FILE_NAME))) {
+            return JsonDeserializer.read(in, StandardCharsets.UTF_8).asObject();
+        }
+    }
+}
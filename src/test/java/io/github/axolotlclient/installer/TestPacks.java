@@ -0,0 +1,128 @@
+/*
+ * Copyright © 2023-2023 moehreag <moehreag@gmail.com>, TheKodeToad <TheKodeToad@proton.me> & Contributors
+ *
+ * This file is part of AxolotlClient Installer.
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ * For more information, see the LICENSE file.
+ */
+
+package io.github.axolotlclient.installer;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import io.github.axolotlclient.installer.http.FakeTransport;
+import io.github.axolotlclient.installer.modrinth.api.ProjectVersion;
+import io.github.axolotlclient.installer.util.Util;
+
+/**
+ * Builds small Quilt packs for Minecraft 1.20.1, and serves them together with their mods and loader profile.
+ * Mods are served from {@value #CDN} followed by their path.
+ */
+public final class TestPacks {
+
+    public static final String CDN = "https://cdn.example/";
+    public static final String PACK_URL = CDN + "pack.mrpack";
+    public static final String LOADER_URL = "https://meta.quiltmc.org/v3/versions/loader/1.20.1/0.19.0/profile/json";
+
+    private TestPacks() {
+    }
+
+    /**
+     * Generates contents which differ for each seed.
+     */
+    public static byte[] data(String seed, int size) {
+        byte[] data = new byte[size];
+        for (int i = 0; i < size; i++)
+            data[i] = (byte) (seed.hashCode() * 31 + i);
+        return data;
+    }
+
+    public static String sha1(byte[] data) {
+        return Util.toHex(Util.sha1().digest(data));
+    }
+
+    /**
+     * @param mods the mods by path.
+     * @param overrides the contents of the override entries by zip entry name, e.g. <code>overrides/a.txt</code>.
+     */
+    public static byte[] pack(String versionId, Map<String, byte[]> mods, Map<String, String> overrides)
+            throws IOException {
+        StringBuilder files = new StringBuilder();
+        mods.forEach((path, data) -> {
+            if (files.length() > 0)
+                files.append(',');
+            files.append("{\"path\":\"").append(path).append("\",\"hashes\":{\"sha1\":\"").append(sha1(data))
+                    .append("\"},\"fileSize\":").append(data.length).append(",\"downloads\":[\"").append(CDN)
+                    .append(path).append("\"]}");
+        });
+        String index = "{\"formatVersion\":1,\"versionId\":\"" + versionId + "\",\"dependencies\":"
+                + "{\"minecraft\":\"1.20.1\",\"quilt-loader\":\"0.19.0\"},\"files\":[" + files + "]}";
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(out)) {
+            zip.putNextEntry(new ZipEntry("modrinth.index.json"));
+            zip.write(index.getBytes(StandardCharsets.UTF_8));
+            for (Map.Entry<String, String> entry : overrides.entrySet()) {
+                zip.putNextEntry(new ZipEntry(entry.getKey()));
+                zip.write(entry.getValue().getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Serves a pack, its mods and the loader profile.
+     * @return the transport.
+     */
+    public static FakeTransport serve(FakeTransport transport, byte[] pack, Map<String, byte[]> mods) {
+        transport.serve(PACK_URL, pack);
+        mods.forEach((path, data) -> transport.serve(CDN + path, data));
+        transport.serve(LOADER_URL, "{\"id\":\"quilt-loader-0.19.0-1.20.1\"}".getBytes(StandardCharsets.UTF_8));
+        return transport;
+    }
+
+    /**
+     * Serves a version list with a single release of a pack, where the installer looks for it.
+     */
+    public static void serveVersionList(FakeTransport transport, byte[] pack) throws IOException {
+        transport.serve(ProjectVersion.query("axolotlclient-modpack").toUrl().toString(),
+                versionList(pack).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Describes a pack the way Modrinth lists it.
+     */
+    public static ProjectVersion version(byte[] pack) throws IOException {
+        return ProjectVersion.read(new ByteArrayInputStream(versionList(pack).getBytes(StandardCharsets.UTF_8)))
+                .get(0);
+    }
+
+    /**
+     * A version list with a single release of a pack.
+     */
+    public static String versionList(byte[] pack) {
+        return "[{\"game_versions\":[\"1.20.1\"],\"version_type\":\"release\",\"files\":[{\"url\":\"" + PACK_URL
+                + "\",\"hashes\":{\"sha1\":\"" + sha1(pack) + "\"},\"size\":" + pack.length
+                + ",\"primary\":true}]}]";
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright © 2023-2023 moehreag <moehreag@gmail.com>, TheKodeToad <TheKodeToad@proton.me> & Contributors
+ *
+ * This file is part of AxolotlClient Installer.
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ * For more information, see the LICENSE file.
+ */
+
+package io.github.axolotlclient.installer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class ThrottledProgressTest {
+
+    // long enough that only closing samples
+    private static final long NEVER = 3_600_000;
+
+    private final List<String> received = Collections.synchronizedList(new ArrayList<>());
+    private final ProgressConsumer target = (message, progress) -> received.add(message + " " + progress);
+
+    @Test
+    void coalescesUpdatesIntoTheLatest() {
+        ThrottledProgress progress = new ThrottledProgress(target, NEVER, false);
+        progress.update("first", 0.1f);
+        progress.update("second", 0.2f);
+        progress.update(0.3f);
+        progress.update(0.4f);
+        progress.close();
+
+        // the message of an earlier update goes with the progress of later ones
+        assertEquals(Collections.singletonList("second 0.4"), received);
+    }
+
+    @Test
+    void passesOnMessagesOnlyWhenTheyChange() throws InterruptedException {
+        ThrottledProgress progress = new ThrottledProgress(target, 20, false);
+        progress.update("message", 0.1f);
+        awaitUpdates(1);
+        progress.update("message", 0.5f);
+        awaitUpdates(2);
+        progress.update(-1);
+        progress.close();
+
+        assertEquals(Arrays.asList("message 0.1", "null 0.5", "null -1.0"), received);
+    }
+
+    @Test
+    void keepsTheLatestUpdateFromConcurrentThreads() throws InterruptedException {
+        ThrottledProgress progress = new ThrottledProgress(target, 1, false);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            String message = "thread " + t;
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    if (i % 100 == 0)
+                        progress.update(message, 0.5f);
+                    else
+                        progress.update(0.25f);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads)
+            thread.join();
+
+        progress.update("done", 1);
+        progress.close();
+
+        assertEquals("done 1.0", received.get(received.size() - 1));
+    }
+
+    private void awaitUpdates(int count) throws InterruptedException {
+        for (int i = 0; i < 200 && received.size() < count; i++)
+            Thread.sleep(10);
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright © 2023-2023 moehreag <moehreag@gmail.com>, TheKodeToad <TheKodeToad@proton.me> & Contributors
+ *
+ * This file is part of AxolotlClient Installer.
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ * For more information, see the LICENSE file.
+ */
+
+package io.github.axolotlclient.installer.http;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import io.github.axolotlclient.installer.util.Util;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class BundleTransportTest {
+
+    private static final String PRIMARY = "https://cdn.example/a.jar";
+    private static final String MIRROR = "https://mirror.example/a.jar";
+    private static final String OTHER = "https://cdn.example/b.jar";
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void servesWhatWasWritten() throws IOException {
+        Path bundle = write();
+        try (BundleTransport transport = new BundleTransport(bundle)) {
+            assertServed(transport);
+        }
+    }
+
+    @Test
+    void servesAnExtractedBundle() throws IOException {
+        Path bundle = write();
+        Path extracted = dir.resolve("extracted");
+        try (ZipFile zip = new ZipFile(bundle.toFile())) {
+            Enumeration<? extends ZipEntry> entries = zip.entries();
+            while (entries.hasMoreElements()) {
+                ZipEntry entry = entries.nextElement();
+                Path path = extracted.resolve(entry.getName());
+                Files.createDirectories(path.getParent());
+                try (InputStream in = zip.getInputStream(entry)) {
+                    Files.copy(in, path);
+                }
+            }
+        }
+
+        try (BundleTransport transport = new BundleTransport(extracted)) {
+            assertServed(transport);
+        }
+    }
+
+    @Test
+    void storesEachFileOnce() throws IOException {
+        Path bundle = write();
+        try (ZipFile zip = new ZipFile(bundle.toFile())) {
+            // the index and two distinct files
+            assertEquals(3, zip.size());
+        }
+    }
+
+    @Test
+    void rejectsOtherArchives() throws IOException {
+        Path zip = dir.resolve("other.zip");
+        try (BundleWriter ignored = new BundleWriter(zip)) {
+            // an empty but valid bundle
+        }
+        Path notBundle = Files.write(dir.resolve("not-a-bundle"), new byte[] {1, 2, 3});
+
+        new BundleTransport(zip).close();
+        assertThrows(IOException.class, () -> new BundleTransport(notBundle));
+        assertThrows(IOException.class, () -> new BundleTransport(Files.createDirectories(dir.resolve("empty"))));
+    }
+
+    private Path write() throws IOException {
+        Path a = Files.write(dir.resolve("a"), "a".getBytes(StandardCharsets.UTF_8));
+        Path b = Files.write(dir.resolve("b"), "b".getBytes(StandardCharsets.UTF_8));
+        Path copyOfA = Files.write(dir.resolve("copy of a"), "a".getBytes(StandardCharsets.UTF_8));
+
+        Path bundle = dir.resolve("bundle.zip");
+        try (BundleWriter writer = new BundleWriter(bundle)) {
+            writer.add(Arrays.asList(PRIMARY, MIRROR), a);
+            writer.add(Collections.singletonList(OTHER), b);
+            writer.add(Collections.singletonList(PRIMARY), copyOfA);
+        }
+        return bundle;
+    }
+
+    private static void assertServed(BundleTransport transport) throws IOException {
+        assertTrue(transport.contains(PRIMARY));
+        assertTrue(transport.contains(MIRROR));
+        assertFalse(transport.contains("https://cdn.example/c.jar"));
+
+        assertEquals("a", fetch(transport, PRIMARY));
+        assertEquals("a", fetch(transport, MIRROR));
+        assertEquals("b", fetch(transport, OTHER));
+        try (HttpResponse response = transport.send(new HttpRequest(new URL("https://cdn.example/c.jar")))) {
+            assertEquals(404, response.getStatus());
+        }
+    }
+
+    private static String fetch(BundleTransport transport, String url) throws IOException {
+        try (HttpResponse response = transport.send(new HttpRequest(new URL(url)))) {
+            assertEquals(200, response.getStatus());
+            return new String(Util.readBytes(response.getBody()), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright © 2023-2023 moehreag <moehreag@gmail.com>, TheKodeToad <TheKodeToad@proton.me> & Contributors
+ *
+ * This file is part of AxolotlClient Installer.
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ * For more information, see the LICENSE file.
+ */
+
+package io.github.axolotlclient.installer.http;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * An in-process transport which serves canned responses, so that tests run without a network.
+ * Unknown URLs are answered with 404.
+ */
+public final class FakeTransport implements HttpTransport {
+
+    private final Map<String, Function<HttpRequest, HttpResponse>> routes = new ConcurrentHashMap<>();
+    private final List<HttpRequest> requests = Collections.synchronizedList(new ArrayList<>());
+
+    /**
+     * Serves a fixed body, honouring <code>Range</code> requests.
+     * @return this transport.
+     */
+    public FakeTransport serve(String url, byte[] body) {
+        return serve(url, request -> {
+            String range = request.getHeader("Range");
+            if (range == null || !range.startsWith("bytes=") || !range.endsWith("-"))
+                return response(200, body);
+
+            int start = Integer.parseInt(range.substring("bytes=".length(), range.length() - 1));
+            if (start >= body.length)
+                return response(416, new byte[0]);
+
+            byte[] part = new byte[body.length - start];
+            System.arraycopy(body, start, part, 0, part.length);
+            return response(206, part);
+        });
+    }
+
+    /**
+     * Serves responses computed by a handler.
+     * @return this transport.
+     */
+    public FakeTransport serve(String url, Function<HttpRequest, HttpResponse> handler) {
+        routes.put(url, handler);
+        return this;
+    }
+
+    /**
+     * Gets all requests sent so far, in order.
+     */
+    public List<HttpRequest> getRequests() {
+        synchronized (requests) {
+            return new ArrayList<>(requests);
+        }
+    }
+
+    @Override
+    public HttpResponse send(HttpRequest request) {
+        requests.add(request);
+        Function<HttpRequest, HttpResponse> handler = routes.get(request.getUrl().toString());
+        return handler != null ? handler.apply(request) : response(404, new byte[0]);
+    }
+
+    public static HttpResponse response(int status, byte[] body) {
+        return response(status, body, Collections.emptyMap());
+    }
+
+    public static HttpResponse response(int status, byte[] body, Map<String, String> headers) {
+        return response(status, new ByteArrayInputStream(body), headers);
+    }
+
+    public static HttpResponse response(int status, InputStream in, Map<String, String> headers) {
+        Map<String, String> copy = new LinkedHashMap<>(headers);
+        return new HttpResponse() {
+
+            @Override
+            public int getStatus() {
+                return status;
+            }
+
+            @Override
+            public String getHeader(String name) {
+                for (Map.Entry<String, String> entry : copy.entrySet())
+                    if (entry.getKey().equalsIgnoreCase(name))
+                        return entry.getValue();
+
+                return null;
+            }
+
+            @Override
+            public InputStream getBody() {
+                return in;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright © 2023-2023 moehreag <moehreag@gmail.com>, TheKodeToad <TheKodeToad@proton.me> & Contributors
+ *
+ * This file is part of AxolotlClient Installer.
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ * For more information, see the LICENSE file.
+ */
+
+package io.github.axolotlclient.installer.http;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class HttpCacheTest {
+
+    private static final String URL = "https://example.com/versions.json";
+    private static final String ETAG = "\"abc\"";
+
+    @TempDir
+    Path dir;
+    private HttpTransport previous;
+    private FakeTransport fake;
+    private HttpCache cache;
+    private URL url;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        previous = Http.getTransport();
+        fake = new FakeTransport();
+        Http.setTransport(fake);
+        cache = new HttpCache(dir);
+        url = new URL(URL);
+    }
+
+    @AfterEach
+    void tearDown() {
+        Http.setTransport(previous);
+    }
+
+    @Test
+    void keepsBodyWhenNotModified() throws IOException {
+        byte[] body = "[1]".getBytes(StandardCharsets.UTF_8);
+        fake.serve(URL, request -> ETAG.equals(request.getHeader("If-None-Match"))
+                ? FakeTransport.response(304, new byte[0])
+                : FakeTransport.response(200, body, Collections.singletonMap("ETag", ETAG)));
+
+        assertNull(cache.get(url));
+        assertTrue(cache.revalidate(url));
+        assertFalse(cache.revalidate(url));
+
+        List<HttpRequest> requests = fake.getRequests();
+        assertEquals(2, requests.size());
+        assertNull(requests.get(0).getHeader("If-None-Match"));
+        assertEquals(ETAG, requests.get(1).getHeader("If-None-Match"));
+        assertArrayEquals(body, Files.readAllBytes(cache.get(url)));
+    }
+
+    @Test
+    void replacesBodyWhenModified() throws IOException {
+        String lastModified = "Wed, 21 Oct 2015 07:28:00 GMT";
+        fake.serve(URL, request -> FakeTransport.response(200, "[1]".getBytes(StandardCharsets.UTF_8),
+                Collections.singletonMap("Last-Modified", lastModified)));
+        assertTrue(cache.revalidate(url));
+
+        byte[] changed = "[1,2]".getBytes(StandardCharsets.UTF_8);
+        fake.serve(URL, changed);
+        assertTrue(cache.revalidate(url));
+
+        assertEquals(lastModified, fake.getRequests().get(1).getHeader("If-Modified-Since"));
+        assertArrayEquals(changed, Files.readAllBytes(cache.get(url)));
+    }
+
+    @Test
+    void keepsBodyWhenRevalidationFails() throws IOException {
+        byte[] body = "[1]".getBytes(StandardCharsets.UTF_8);
+        fake.serve(URL, body);
+        assertTrue(cache.revalidate(url));
+
+        fake.serve(URL, request -> FakeTransport.response(500, new byte[0]));
+        assertThrows(IOException.class, () -> cache.revalidate(url));
+        assertArrayEquals(body, Files.readAllBytes(cache.get(url)));
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright © 2023-2023 moehreag <moehreag@gmail.com>, TheKodeToad <TheKodeToad@proton.me> & Contributors
+ *
+ * This file is part of AxolotlClient Installer.
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ * For more information, see the LICENSE file.
+ */
+
+package io.github.axolotlclient.installer.http;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import io.github.axolotlclient.installer.util.Util;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class MirrorsTest {
+
+    private static final String ORIGINAL = "https://cdn.example/data/a.jar";
+    private static final String MIRROR = "https://mirror.example/cdn/data/a.jar";
+    private static final String PROXY = "http://proxy.example/https://cdn.example/data/a.jar";
+
+    private final Mirrors mirrors = new Mirrors(Arrays.asList(
+            new Mirrors.Rule("https://cdn.example/", "https://mirror.example/cdn/", true),
+            new Mirrors.Rule("https://", "http://proxy.example/https://", true)));
+
+    @TempDir
+    Path dir;
+
+    private HttpTransport previous;
+    private FakeTransport fake;
+
+    @BeforeEach
+    void setUp() {
+        previous = Http.getTransport();
+        fake = new FakeTransport();
+        Http.setTransport(fake);
+    }
+
+    @AfterEach
+    void tearDown() {
+        Http.setTransport(previous);
+    }
+
+    @Test
+    void rewritesInRuleOrderKeepingTheOriginalLast() {
+        assertEquals(Arrays.asList(MIRROR, PROXY, ORIGINAL), mirrors.rewrite(ORIGINAL));
+        assertEquals(Collections.singletonList("http://other.example/a.jar"),
+                mirrors.rewrite("http://other.example/a.jar"));
+    }
+
+    @Test
+    void dropsTheOriginalIfAnyMatchingRuleSaysSo() throws IOException {
+        Path file = dir.resolve("mirrors.json");
+        Files.write(file, ("{\"rules\":[{\"prefix\":\"https://cdn.example/\",\"replacement\":"
+                + "\"https://mirror.example/cdn/\",\"keepOriginal\":false},{\"prefix\":\"https://other.example/\","
+                + "\"replacement\":\"https://mirror.example/other/\"}]}").getBytes(StandardCharsets.UTF_8));
+
+        Mirrors read = Mirrors.read(file);
+
+        assertEquals(Collections.singletonList(MIRROR), read.rewrite(ORIGINAL));
+        assertEquals(Arrays.asList("https://mirror.example/other/a.jar", "https://other.example/a.jar"),
+                read.rewrite("https://other.example/a.jar"));
+        assertThrows(IllegalArgumentException.class, () -> Mirrors.Rule.parse("=https://mirror.example/"));
+    }
+
+    @Test
+    void ranksHostsByTheirCostForTheSize() throws IOException {
+        assertEquals(Arrays.asList(MIRROR, PROXY, ORIGINAL), candidates(1));
+
+        // the mirror answers quickly but transfers slowly, the origin the other way around
+        mirrors.recordSuccess(new URL(MIRROR), millis(10), 1000, millis(1010));
+        mirrors.recordSuccess(new URL(ORIGINAL), millis(200), 1000000, millis(1200));
+
+        assertEquals(Arrays.asList(MIRROR, PROXY, ORIGINAL), candidates(1));
+        // the unmeasured proxy counts as fast as the best host, and came first in the rewritten order
+        assertEquals(Arrays.asList(PROXY, ORIGINAL, MIRROR), candidates(1000000));
+
+        mirrors.recordFailure(new URL(MIRROR));
+        assertEquals(MIRROR, candidates(1).get(2));
+    }
+
+    @Test
+    void opensTheFirstCandidateWhichResponds() throws IOException {
+        fake.serve(PROXY, "proxied".getBytes(StandardCharsets.UTF_8));
+
+        try (InputStream in = mirrors.open(new URL(ORIGINAL))) {
+            assertEquals("proxied", new String(Util.readBytes(in), StandardCharsets.UTF_8));
+        }
+
+        assertEquals(Arrays.asList(MIRROR, PROXY), requests());
+        assertEquals(PROXY, candidates(1).get(0));
+        assertEquals(MIRROR, candidates(1).get(2));
+    }
+
+    @Test
+    void reportsEveryFailure() {
+        IOException e = assertThrows(IOException.class, () -> mirrors.open(new URL(ORIGINAL)));
+
+        assertEquals(3, requests().size());
+        assertEquals(1, e.getSuppressed().length);
+        assertEquals(1, e.getSuppressed()[0].getSuppressed().length);
+    }
+
+    private List<String> candidates(long size) throws MalformedURLException {
+        return mirrors.candidates(Collections.singletonList(ORIGINAL), size).stream().map(URL::toString)
+                .collect(Collectors.toList());
+    }
+
+    private List<String> requests() {
+        return fake.getRequests().stream().map(request -> request.getUrl().toString()).collect(Collectors.toList());
+    }
+
+    private static long millis(long millis) {
+        return TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+}
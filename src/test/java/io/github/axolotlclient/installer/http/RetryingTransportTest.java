@@ -0,0 +1,141 @@
+/*
+ * Copyright © 2023-2023 moehreag <moehreag@gmail.com>, TheKodeToad <TheKodeToad@proton.me> & Contributors
+ *
+ * This file is part of AxolotlClient Installer.
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ * For more information, see the LICENSE file.
+ */
+
+package io.github.axolotlclient.installer.http;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.URL;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+class RetryingTransportTest {
+
+    private static final String URL = "https://example.com/file";
+
+    @Test
+    void retriesServerErrors() throws IOException {
+        AtomicInteger calls = new AtomicInteger();
+        FakeTransport fake = new FakeTransport().serve(URL, request ->
+                FakeTransport.response(calls.incrementAndGet() < 3 ? 503 : 200, new byte[0]));
+
+        try (HttpResponse response = new RetryingTransport(fake, 4, 1, 10).send(request())) {
+            assertEquals(200, response.getStatus());
+        }
+        assertEquals(3, fake.getRequests().size());
+    }
+
+    @Test
+    void returnsLastResponseOnceAttemptsRunOut() throws IOException {
+        FakeTransport fake = new FakeTransport().serve(URL, request -> FakeTransport.response(503, new byte[0]));
+
+        try (HttpResponse response = new RetryingTransport(fake, 3, 1, 10).send(request())) {
+            assertEquals(503, response.getStatus());
+        }
+        assertEquals(3, fake.getRequests().size());
+    }
+
+    @Test
+    void doesNotRetryClientErrors() throws IOException {
+        FakeTransport fake = new FakeTransport();
+
+        try (HttpResponse response = new RetryingTransport(fake, 4, 1, 10).send(request())) {
+            assertEquals(404, response.getStatus());
+        }
+        assertEquals(1, fake.getRequests().size());
+    }
+
+    @Test
+    void retriesFailedConnections() throws IOException {
+        AtomicInteger calls = new AtomicInteger();
+        HttpTransport flaky = request -> {
+            if (calls.incrementAndGet() < 2)
+                throw new ConnectException("Connection refused");
+
+            return FakeTransport.response(200, new byte[0]);
+        };
+
+        try (HttpResponse response = new RetryingTransport(flaky, 4, 1, 10).send(request())) {
+            assertEquals(200, response.getStatus());
+        }
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void rethrowsOnceAttemptsRunOut() {
+        AtomicInteger calls = new AtomicInteger();
+        HttpTransport down = request -> {
+            calls.incrementAndGet();
+            throw new ConnectException("Connection refused");
+        };
+
+        assertThrows(ConnectException.class, () -> new RetryingTransport(down, 3, 1, 10).send(request()));
+        assertEquals(3, calls.get());
+    }
+
+    @Test
+    void backoffIsCappedByMaxDelay() throws IOException {
+        AtomicInteger calls = new AtomicInteger();
+        FakeTransport fake = new FakeTransport().serve(URL, request ->
+                FakeTransport.response(calls.incrementAndGet() < 3 ? 500 : 200, new byte[0]));
+
+        long start = System.nanoTime();
+        try (HttpResponse response = new RetryingTransport(fake, 4, 60_000, 20).send(request())) {
+            assertEquals(200, response.getStatus());
+        }
+        assertTrue(System.nanoTime() - start < 10_000_000_000L, "waited for longer than the maximum delay");
+    }
+
+    @Test
+    void retryAfterOverridesBackoff() throws IOException {
+        AtomicInteger calls = new AtomicInteger();
+        FakeTransport fake = new FakeTransport().serve(URL, request -> calls.incrementAndGet() < 2
+                ? FakeTransport.response(429, new byte[0], Collections.singletonMap("Retry-After", "0"))
+                : FakeTransport.response(200, new byte[0]));
+
+        long start = System.nanoTime();
+        try (HttpResponse response = new RetryingTransport(fake, 4, 60_000, 60_000).send(request())) {
+            assertEquals(200, response.getStatus());
+        }
+        assertTrue(System.nanoTime() - start < 10_000_000_000L, "ignored Retry-After");
+        assertEquals(2, fake.getRequests().size());
+    }
+
+    @Test
+    void parsesRetryAfter() {
+        assertEquals(Long.valueOf(120_000), RetryingTransport.parseRetryAfter("120"));
+        assertEquals(Long.valueOf(0), RetryingTransport.parseRetryAfter("Wed, 21 Oct 2015 07:28:00 GMT"));
+        assertNull(RetryingTransport.parseRetryAfter("soon"));
+        assertNull(RetryingTransport.parseRetryAfter(null));
+    }
+
+    private static HttpRequest request() throws IOException {
+        return new HttpRequest(new URL(URL));
+    }
+}
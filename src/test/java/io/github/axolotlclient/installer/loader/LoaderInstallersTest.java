@@ -0,0 +1,113 @@
+/*
+ * Copyright © 2023-2023 moehreag <moehreag@gmail.com>, TheKodeToad <TheKodeToad@proton.me> & Contributors
+ *
+ * This file is part of AxolotlClient Installer.
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ * For more information, see the LICENSE file.
+ */
+
+package io.github.axolotlclient.installer.loader;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import io.toadlabs.jfgjds.JsonDeserializer;
+import org.junit.jupiter.api.Test;
+
+class LoaderInstallersTest {
+
+    @Test
+    void prefersQuiltOverFabric() throws IOException {
+        LoaderProfile profile = resolve("1.20.1", "quilt-loader", "0.19.0", "fabric-loader", "0.14.21");
+
+        assertEquals("quilt", profile.getType());
+        assertEquals("quilt-loader-0.19.0-1.20.1", profile.getVersionName());
+        assertEquals("https://meta.quiltmc.org/v3/versions/loader/1.20.1/0.19.0/profile/json",
+                profile.getUrl().toString());
+    }
+
+    @Test
+    void usesOrnitheForLegacyFabric() throws IOException {
+        assertEquals("fabric", resolve("1.14", "fabric-loader", "0.14.21").getType());
+        assertEquals("fabric", resolve("1.20.1", "fabric-loader", "0.14.21").getType());
+
+        for (String gameVersion : new String[] { "1.13.2", "1.8.9", "b1.7.3", "a1.0" }) {
+            LoaderProfile profile = resolve(gameVersion, "fabric-loader", "0.14.21");
+            assertEquals("ornithe-gen1", profile.getType(), gameVersion);
+            assertEquals("fabric-loader-0.14.21-" + gameVersion + "-ornithe-gen1", profile.getVersionName());
+        }
+
+        assertEquals("combat-fabric", resolve("1.16_combat-6", "fabric-loader", "0.14.21").getType());
+    }
+
+    @Test
+    void failsWithoutASupportedLoader() {
+        assertThrows(UnsupportedOperationException.class, () -> resolve("1.20.1", "forge", "47.1.0"));
+    }
+
+    @Test
+    void usesRegisteredInstallers() throws IOException {
+        LoaderInstallers.register(new LoaderInstaller() {
+            @Override
+            public String getType() {
+                return "test";
+            }
+
+            @Override
+            public String getDependency() {
+                return "test-loader";
+            }
+
+            @Override
+            public URL getProfileUrl(String gameVersion, String loaderVersion) throws MalformedURLException {
+                return new URL("https://meta.example/" + gameVersion + '/' + loaderVersion);
+            }
+        });
+
+        assertEquals("https://meta.example/1.20.1/1.0", resolve("1.20.1", "test-loader", "1.0").getUrl().toString());
+        assertEquals("quilt", resolve("1.20.1", "test-loader", "1.0", "quilt-loader", "0.19.0").getType());
+    }
+
+    @Test
+    void pointsOrnitheProfilesAtTheVanillaVersion() throws IOException {
+        OrnitheLoaderInstaller installer = new OrnitheLoaderInstaller();
+        byte[] processed = installer.process(("{\"id\":\"fabric-loader-0.14.21-1.8.9\","
+                + "\"inheritsFrom\":\"1.8.9-vanilla\"}").getBytes(StandardCharsets.UTF_8));
+
+        assertEquals("1.8.9", JsonDeserializer.read(new ByteArrayInputStream(processed), StandardCharsets.UTF_8)
+                .asObject().get("inheritsFrom").getStringValue());
+        // bundled profiles have been processed already
+        assertArrayEquals(processed, installer.process(processed));
+    }
+
+    private static LoaderProfile resolve(String gameVersion, String... dependencies) throws IOException {
+        Map<String, String> map = new HashMap<>();
+        map.put("minecraft", gameVersion);
+        for (int i = 0; i < dependencies.length; i += 2)
+            map.put(dependencies[i], dependencies[i + 1]);
+        return LoaderInstallers.resolve(map);
+    }
+}
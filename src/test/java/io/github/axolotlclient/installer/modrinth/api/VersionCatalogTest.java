@@ -0,0 +1,81 @@
+/*
+ * Copyright © 2023-2023 moehreag <moehreag@gmail.com>, TheKodeToad <TheKodeToad@proton.me> & Contributors
+ *
+ * This file is part of AxolotlClient Installer.
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ * For more information, see the LICENSE file.
+ */
+
+package io.github.axolotlclient.installer.modrinth.api;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+import io.github.axolotlclient.installer.util.MinecraftVersion;
+import org.junit.jupiter.api.Test;
+
+class VersionCatalogTest {
+
+    private final ProjectVersion beta = version(ReleaseChannel.BETA, "1.20");
+    private final ProjectVersion newer = version(ReleaseChannel.RELEASE, "1.20", "1.19.4");
+    private final ProjectVersion older = version(ReleaseChannel.RELEASE, "1.19.4", "1.8.9");
+    private final VersionCatalog catalog = new VersionCatalog(Arrays.asList(beta, newer, older));
+
+    @Test
+    void prefersNewestVersionInChannel() {
+        assertSame(newer, catalog.getLatest("1.20", ReleaseChannel.RELEASE));
+        assertSame(beta, catalog.getLatest("1.20", ReleaseChannel.BETA));
+        assertSame(beta, catalog.getLatest("1.20", ReleaseChannel.ALPHA));
+        assertSame(newer, catalog.getLatest("1.19.4", ReleaseChannel.RELEASE));
+        assertSame(older, catalog.getLatest("1.8.9", ReleaseChannel.RELEASE));
+        assertNull(catalog.getLatest("1.12.2", ReleaseChannel.RELEASE));
+    }
+
+    @Test
+    void listsGameVersionsNewestFirst() {
+        assertEquals(Arrays.asList("1.20", "1.19.4", "1.8.9"), catalog.getGameVersions(ReleaseChannel.RELEASE));
+    }
+
+    @Test
+    void findsNewestInRange() {
+        Map.Entry<MinecraftVersion, ProjectVersion> latest =
+                catalog.getLatestInRange("1.8.9", "1.19.4", ReleaseChannel.RELEASE);
+
+        assertEquals(MinecraftVersion.parse("1.19.4"), latest.getKey());
+        assertSame(newer, latest.getValue());
+        assertEquals(2, catalog.getRange("1.8", "1.19.4", ReleaseChannel.RELEASE).size());
+        assertTrue(catalog.getRange("1.20", "1.8.9", ReleaseChannel.RELEASE).isEmpty());
+        assertNull(catalog.getLatestInRange("1.9", "1.12.2", ReleaseChannel.RELEASE));
+    }
+
+    @Test
+    void emptyCatalogHasNothing() {
+        assertTrue(VersionCatalog.EMPTY.isEmpty());
+        assertTrue(VersionCatalog.EMPTY.getGameVersions(ReleaseChannel.ALPHA).isEmpty());
+        assertNull(VersionCatalog.EMPTY.getLatest("1.20", ReleaseChannel.ALPHA));
+    }
+
+    private static ProjectVersion version(ReleaseChannel channel, String... gameVersions) {
+        return new ProjectVersion(Arrays.asList(gameVersions), Collections.emptyList(), channel);
+    }
+}
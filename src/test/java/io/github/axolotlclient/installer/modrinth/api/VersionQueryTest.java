@@ -0,0 +1,116 @@
+/*
+ * Copyright © 2023-2023 moehreag <moehreag@gmail.com>, TheKodeToad <TheKodeToad@proton.me> & Contributors
+ *
+ * This file is part of AxolotlClient Installer.
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ * For more information, see the LICENSE file.
+ */
+
+package io.github.axolotlclient.installer.modrinth.api;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import io.github.axolotlclient.installer.http.FakeTransport;
+import io.github.axolotlclient.installer.http.Http;
+import io.github.axolotlclient.installer.http.HttpTransport;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class VersionQueryTest {
+
+    private static final String BASE = "https://api.modrinth.com/v2/project/axolotlclient/version";
+
+    private HttpTransport previous;
+    private FakeTransport fake;
+
+    @BeforeEach
+    void setUp() {
+        previous = Http.getTransport();
+        fake = new FakeTransport();
+        Http.setTransport(fake);
+    }
+
+    @AfterEach
+    void tearDown() {
+        Http.setTransport(previous);
+    }
+
+    @Test
+    void leavesOutUnsetFilters() throws IOException {
+        assertEquals(BASE + "?include_changelog=false", new VersionQuery("axolotlclient").toUrl().toString());
+    }
+
+    @Test
+    void encodesFiltersAsJsonArrays() throws IOException {
+        VersionQuery query = new VersionQuery("axolotlclient").featured(true).loaders("fabric", "quilt")
+                .gameVersions("1.20.1").includeChangelog(true);
+
+        assertEquals(BASE + "?featured=true&loaders=%5B%22fabric%22%2C%22quilt%22%5D"
+                + "&game_versions=%5B%221.20.1%22%5D&include_changelog=true", query.toUrl().toString());
+    }
+
+    @Test
+    void filtersChannelsWhileReading() throws IOException {
+        fake.serve(BASE + "?include_changelog=false", versions("alpha", "beta", "release"));
+        fake.serve(BASE + "?game_versions=%5B%221.8.9%22%5D&include_changelog=false", versions("alpha", "beta"));
+
+        List<ProjectVersion> beta = new VersionQuery("axolotlclient").upTo(ReleaseChannel.BETA).fetch();
+        ProjectVersion release = new VersionQuery("axolotlclient").channels(ReleaseChannel.RELEASE).fetchFirst();
+        ProjectVersion none = new VersionQuery("axolotlclient").channels(ReleaseChannel.RELEASE)
+                .gameVersions("1.8.9").fetchFirst();
+
+        assertEquals(Arrays.asList(ReleaseChannel.BETA, ReleaseChannel.RELEASE),
+                beta.stream().map(ProjectVersion::getVersionType).collect(Collectors.toList()));
+        assertEquals(ReleaseChannel.RELEASE, release.getVersionType());
+        assertNull(none);
+    }
+
+    @Test
+    void fetchesOnePagePerGameVersion() {
+        fake.serve(BASE + "?game_versions=%5B%221.20.1%22%5D&include_changelog=false", versions("release"));
+        fake.serve(BASE + "?game_versions=%5B%221.19.4%22%5D&include_changelog=false", versions("beta"));
+
+        Iterator<List<ProjectVersion>> pages = new VersionQuery("axolotlclient").upTo(ReleaseChannel.BETA)
+                .pages(Arrays.asList("1.20.1", "1.19.4", "1.8.9"));
+
+        assertTrue(fake.getRequests().isEmpty());
+        assertEquals(ReleaseChannel.RELEASE, pages.next().get(0).getVersionType());
+        assertEquals(1, fake.getRequests().size());
+        assertEquals(ReleaseChannel.BETA, pages.next().get(0).getVersionType());
+        assertTrue(pages.hasNext());
+        assertThrows(UncheckedIOException.class, pages::next);
+        assertFalse(pages.hasNext());
+    }
+
+    private static byte[] versions(String... types) {
+        return Arrays.stream(types).map(type -> "{\"game_versions\":[\"1.20.1\"],\"version_type\":\"" + type
+                + "\",\"files\":[]}").collect(Collectors.joining(",", "[", "]")).getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,205 @@
+/*
+ * Copyright © 2023-2023 moehreag <moehreag@gmail.com>, TheKodeToad <TheKodeToad@proton.me> & Contributors
+ *
+ * This file is part of AxolotlClient Installer.
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ * For more information, see the LICENSE file.
+ */
+
+package io.github.axolotlclient.installer.modrinth.pack;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.github.axolotlclient.installer.ProgressConsumer;
+import io.github.axolotlclient.installer.TestPacks;
+import io.github.axolotlclient.installer.http.FakeTransport;
+import io.github.axolotlclient.installer.http.Http;
+import io.github.axolotlclient.installer.http.HttpTransport;
+import io.github.axolotlclient.installer.http.Mirrors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class MrDownloaderTest {
+
+    private static final String MIRROR = "https://mirror.example/";
+
+    @TempDir
+    Path dir;
+    private HttpTransport previous;
+    private FakeTransport fake;
+
+    @BeforeEach
+    void setUp() {
+        previous = Http.getTransport();
+        fake = new FakeTransport();
+        Http.setTransport(fake);
+    }
+
+    @AfterEach
+    void tearDown() {
+        Http.setTransport(previous);
+    }
+
+    @Test
+    void skipsFilesWhichAreAlreadyValid() throws IOException {
+        byte[] data = TestPacks.data("valid", 1000);
+        fake.serve(TestPacks.CDN + "mods/a.jar", data);
+        List<MrFile> files = readFiles(Collections.singletonMap("mods/a.jar", data));
+        Files.createDirectories(dir.resolve("game/mods"));
+        Files.write(dir.resolve("game/mods/a.jar"), data);
+
+        assertTrue(new MrDownloader().downloadAll(dir.resolve("game"), files, ProgressConsumer.NONE).isEmpty());
+        assertTrue(fake.getRequests().isEmpty());
+
+        // same size, different contents
+        Files.write(dir.resolve("game/mods/a.jar"), new byte[data.length]);
+        assertTrue(new MrDownloader().downloadAll(dir.resolve("game"), files, ProgressConsumer.NONE).isEmpty());
+        assertArrayEquals(data, Files.readAllBytes(dir.resolve("game/mods/a.jar")));
+    }
+
+    @Test
+    void rejectsDownloadsWithTheWrongHash() throws IOException {
+        byte[] data = TestPacks.data("expected", 1000);
+        byte[] corrupt = data.clone();
+        corrupt[500] ^= 1;
+        fake.serve(TestPacks.CDN + "mods/a.jar", corrupt);
+        List<MrFile> files = readFiles(Collections.singletonMap("mods/a.jar", data));
+
+        Map<MrFile, IOException> failures = new MrDownloader().downloadAll(dir.resolve("game"), files,
+                ProgressConsumer.NONE);
+
+        assertEquals(files, new ArrayList<>(failures.keySet()));
+        assertFalse(Files.exists(dir.resolve("game/mods/a.jar")));
+    }
+
+    @Test
+    void concurrentCallsShareTheHostLimit() throws Exception {
+        AtomicInteger active = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        Map<String, byte[]> mods = new LinkedHashMap<>();
+        for (int i = 0; i < 8; i++) {
+            byte[] data = TestPacks.data("mod" + i, 1000);
+            String path = "mods/" + i + ".jar";
+            mods.put(path, data);
+            fake.serve(TestPacks.CDN + path, request -> {
+                peak.accumulateAndGet(active.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(20);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    active.decrementAndGet();
+                }
+                return FakeTransport.response(200, data);
+            });
+        }
+        List<MrFile> files = readFiles(mods);
+
+        MrDownloader downloader = new MrDownloader(4, 1);
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        try {
+            List<Future<Map<MrFile, IOException>>> results = new ArrayList<>();
+            results.add(callers.submit(() -> downloader.downloadAll(dir.resolve("first"), files.subList(0, 4),
+                    ProgressConsumer.NONE)));
+            results.add(callers.submit(() -> downloader.downloadAll(dir.resolve("second"), files.subList(4, 8),
+                    ProgressConsumer.NONE)));
+            for (Future<Map<MrFile, IOException>> result : results)
+                assertTrue(result.get().isEmpty());
+        } finally {
+            callers.shutdownNow();
+        }
+
+        assertEquals(1, peak.get());
+        assertArrayEquals(mods.get("mods/7.jar"), Files.readAllBytes(dir.resolve("second/mods/7.jar")));
+    }
+
+    @Test
+    void winnerDoesNotWaitForStalledLoser() throws Exception {
+        byte[] data = TestPacks.data("raced", 100_000);
+        CountDownLatch release = new CountDownLatch(1);
+        // the first candidate sends a little and then stalls until released
+        fake.serve(MIRROR + "mods/a.jar", request -> FakeTransport.response(200, new InputStream() {
+
+            private int sent;
+
+            @Override
+            public int read() throws IOException {
+                if (sent < 1000)
+                    return data[sent++] & 0xFF;
+
+                // like a socket read, which an interrupt does not wake up
+                while (release.getCount() > 0) {
+                    try {
+                        release.await();
+                    } catch (InterruptedException ignored) {
+                    }
+                }
+                return -1;
+            }
+        }, Collections.emptyMap()));
+        fake.serve(TestPacks.CDN + "mods/a.jar", data);
+        List<MrFile> files = readFiles(Collections.singletonMap("mods/a.jar", data));
+
+        MrDownloader downloader = new MrDownloader();
+        downloader.setMirrors(new Mirrors(Collections.singletonList(new Mirrors.Rule(TestPacks.CDN, MIRROR, true))));
+        ExecutorService caller = Executors.newSingleThreadExecutor();
+        try {
+            Future<Map<MrFile, IOException>> result = caller.submit(() -> downloader.downloadAll(dir.resolve("game"),
+                    files, ProgressConsumer.NONE));
+            assertTrue(result.get(20, TimeUnit.SECONDS).isEmpty());
+        } finally {
+            release.countDown();
+            caller.shutdownNow();
+        }
+        assertArrayEquals(data, Files.readAllBytes(dir.resolve("game/mods/a.jar")));
+
+        // the loser cleans up after itself once it stops
+        Path part = dir.resolve("game/mods/a.jar.part");
+        for (int i = 0; i < 100 && Files.exists(part); i++)
+            Thread.sleep(50);
+        assertFalse(Files.exists(part));
+    }
+
+    /**
+     * Reads the files of a pack with the given mods.
+     */
+    private List<MrFile> readFiles(Map<String, byte[]> mods) throws IOException {
+        Path pack = Files.write(dir.resolve("pack.mrpack"), TestPacks.pack("1.0", mods, Collections.emptyMap()));
+        return MrPack.read(pack, "client").getFiles();
+    }
+}
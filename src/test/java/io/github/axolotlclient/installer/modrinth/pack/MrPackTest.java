@@ -0,0 +1,151 @@
+/*
+ * Copyright © 2023-2023 moehreag <moehreag@gmail.com>, TheKodeToad <TheKodeToad@proton.me> & Contributors
+ *
+ * This file is part of AxolotlClient Installer.
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ * For more information, see the LICENSE file.
+ */
+
+package io.github.axolotlclient.installer.modrinth.pack;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class MrPackTest {
+
+    private static final String INDEX = "{\"formatVersion\":1,\"versionId\":\"1.0\",\"dependencies\":"
+            + "{\"minecraft\":\"1.20.1\",\"fabric-loader\":\"0.14.21\"},\"files\":["
+            + file("mods/required.jar", "") + ','
+            + file("mods/optional.jar", ",\"env\":{\"client\":\"optional\",\"server\":\"required\"}") + ','
+            + file("mods/server.jar", ",\"env\":{\"client\":\"unsupported\",\"server\":\"required\"}") + "]}";
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void readsTheIndex() throws IOException {
+        MrPack pack = MrPack.read(write(Collections.emptyMap()), "client");
+
+        assertEquals("1.0", pack.getVersionId());
+        assertEquals("1.20.1", pack.getDependencies().get("minecraft"));
+        assertEquals("0.14.21", pack.getDependencies().get("fabric-loader"));
+        assertEquals(3, pack.getFiles().size());
+        assertEquals(Collections.singletonList(Paths.get("mods/required.jar")), paths(pack, false));
+        assertEquals(Arrays.asList(Paths.get("mods/required.jar"), Paths.get("mods/optional.jar")),
+                paths(pack, true));
+    }
+
+    @Test
+    void appliesTheOverridesOfItsSideLast() throws IOException {
+        Map<String, String> entries = new LinkedHashMap<>();
+        entries.put("client-overrides/config/a.txt", "client");
+        entries.put("overrides/config/a.txt", "common");
+        entries.put("overrides/config/b.txt", "common");
+        entries.put("server-overrides/config/c.txt", "server");
+        Path game = dir.resolve("game");
+
+        MrPack pack = MrPack.extract(new ByteArrayInputStream(Files.readAllBytes(write(entries))), "client", game);
+
+        assertEquals(Arrays.asList("config/a.txt", "config/b.txt"), pack.getOverrides().keySet().stream()
+                .sorted().collect(Collectors.toList()));
+        assertEquals("client", read(game.resolve("config/a.txt")));
+        assertEquals("common", read(game.resolve("config/b.txt")));
+        assertFalse(Files.exists(game.resolve("config/c.txt")));
+    }
+
+    @Test
+    void extractsNextToTheGameDir() throws IOException {
+        Map<String, String> entries = new LinkedHashMap<>();
+        entries.put("overrides/config/a.txt", "a");
+        entries.put("overrides/config/dir", "a file where the game dir has a directory");
+        Path game = dir.resolve("game");
+        Files.createDirectories(game.resolve("config/dir"));
+        Path staged = dir.resolve("staged");
+
+        MrPack.read(write(entries), "client").extractOverrides(game, staged, Collections.emptyMap());
+
+        assertEquals("a", read(staged.resolve("config/a.txt")));
+        assertFalse(Files.exists(game.resolve("config/a.txt")));
+        assertFalse(Files.exists(staged.resolve("config/dir")));
+    }
+
+    @Test
+    void refusesEntriesOutsideTheGameDir() throws IOException {
+        Path pack = write(Collections.singletonMap("overrides/../escaped.txt", "escaped"));
+        Path game = Files.createDirectories(dir.resolve("game"));
+
+        assertThrows(IOException.class, () -> MrPack.extract(pack, "client", game, Collections.emptyMap()));
+        assertFalse(Files.exists(dir.resolve("escaped.txt")));
+    }
+
+    @Test
+    void rejectsArchivesWithoutAnIndex() throws IOException {
+        Path zip = dir.resolve("empty.zip");
+        try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(zip))) {
+            out.putNextEntry(new ZipEntry("overrides/a.txt"));
+        }
+
+        assertThrows(MrPackException.class, () -> MrPack.read(zip, "client"));
+    }
+
+    private static String file(String path, String extra) {
+        return "{\"path\":\"" + path + "\",\"hashes\":{\"sha1\":\"aa00000000000000000000000000000000000001\"},"
+                + "\"fileSize\":1,\"downloads\":[\"https://cdn.example/" + path + "\"]" + extra + '}';
+    }
+
+    private static List<Path> paths(MrPack pack, boolean optional) {
+        return pack.getInstallableFiles(file -> optional).stream().map(MrFile::getPath).collect(Collectors.toList());
+    }
+
+    private Path write(Map<String, String> entries) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(bytes)) {
+            zip.putNextEntry(new ZipEntry("modrinth.index.json"));
+            zip.write(INDEX.getBytes(StandardCharsets.UTF_8));
+            for (Map.Entry<String, String> entry : entries.entrySet()) {
+                zip.putNextEntry(new ZipEntry(entry.getKey()));
+                zip.write(entry.getValue().getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        return Files.write(Files.createTempFile(dir, "pack", ".mrpack"), bytes.toByteArray());
+    }
+
+    private static String read(Path path) throws IOException {
+        return new String(Files.readAllBytes(path), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright © 2023-2023 moehreag <moehreag@gmail.com>, TheKodeToad <TheKodeToad@proton.me> & Contributors
+ *
+ * This file is part of AxolotlClient Installer.
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ * For more information, see the LICENSE file.
+ */
+
+package io.github.axolotlclient.installer.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class DownloadCacheTest {
+
+    private static final String USED = "aa00000000000000000000000000000000000001";
+    private static final String UNUSED = "bb00000000000000000000000000000000000002";
+    private static final String LINKED = "cc00000000000000000000000000000000000003";
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void storesAndCopiesEntries() throws IOException {
+        DownloadCache cache = new DownloadCache(dir.resolve("cache"));
+        assertNull(cache.get(USED));
+        assertFalse(cache.copyTo(USED, dir.resolve("game/a.jar")));
+
+        put(cache, USED, 10);
+        // keyed by hash, whatever its case
+        assertEquals(cache.getPath(USED), cache.get(USED.toUpperCase(Locale.ROOT)));
+        assertTrue(cache.copyTo(USED, dir.resolve("game/a.jar")));
+        assertEquals(10, Files.size(dir.resolve("game/a.jar")));
+        assertThrows(IllegalArgumentException.class, () -> cache.getPath("../../escape"));
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedEntriesFirst() throws IOException {
+        DownloadCache cache = new DownloadCache(dir.resolve("cache"), 25);
+        put(cache, USED, 10);
+        put(cache, UNUSED, 10);
+        put(cache, LINKED, 10);
+        age(cache, USED, 3);
+        age(cache, UNUSED, 2);
+        age(cache, LINKED, 1);
+        // using the oldest entry keeps it
+        cache.get(USED);
+
+        cache.evict();
+
+        assertNotNull(cache.get(USED));
+        assertNull(cache.get(UNUSED));
+        assertNotNull(cache.get(LINKED));
+    }
+
+    @Test
+    void evictionLeavesLinkedEntriesAndPartialDownloadsAlone() throws IOException {
+        DownloadCache cache = new DownloadCache(dir.resolve("cache"), 0);
+        put(cache, LINKED, 10);
+        put(cache, UNUSED, 10);
+        Path target = dir.resolve("game/mods/linked.jar");
+        cache.linkTo(LINKED, target);
+        Path part = write(cache.getDir().resolve("aa/" + USED + ".part"), 5);
+
+        cache.evict();
+
+        assertNull(cache.get(UNUSED));
+        assertTrue(Files.exists(part));
+        // only holds where the file system counts links
+        if (Files.isSameFile(target, cache.getPath(LINKED)))
+            assertNotNull(cache.get(LINKED));
+    }
+
+    @Test
+    void collectsUnreferencedEntries() throws IOException {
+        DownloadCache cache = new DownloadCache(dir.resolve("cache"));
+        put(cache, USED, 10);
+        put(cache, UNUSED, 20);
+        cache.get(UNUSED);
+
+        assertEquals(20, cache.collectGarbage(Collections.singleton(USED)));
+        assertTrue(Files.exists(cache.getPath(USED)));
+        assertFalse(Files.exists(cache.getPath(UNUSED)));
+        // the sidecar goes with the entry
+        try (Stream<Path> files = Files.list(cache.getPath(UNUSED).getParent())) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    void keepsEntriesLinkedIntoAGameDir() throws IOException {
+        DownloadCache cache = new DownloadCache(dir.resolve("cache"));
+        put(cache, LINKED, 10);
+        Path target = dir.resolve("game/mods/linked.jar");
+        assertTrue(cache.linkTo(LINKED, target));
+
+        // only holds where the file system counts links
+        if (Files.isSameFile(target, cache.getPath(LINKED))) {
+            assertEquals(0, cache.collectGarbage(Collections.emptySet()));
+            assertTrue(Files.exists(cache.getPath(LINKED)));
+        }
+
+        Files.delete(target);
+        assertEquals(10, cache.collectGarbage(Collections.emptySet()));
+        assertFalse(Files.exists(cache.getPath(LINKED)));
+    }
+
+    @Test
+    void collectsOnlyAbandonedPartialDownloads() throws IOException {
+        DownloadCache cache = new DownloadCache(dir.resolve("cache"));
+        Path abandoned = write(cache.getDir().resolve("aa/" + USED + ".part"), 5);
+        Files.setLastModifiedTime(abandoned, FileTime.fromMillis(System.currentTimeMillis()
+                - TimeUnit.DAYS.toMillis(2)));
+        Path fresh = write(cache.getDir().resolve("bb/" + UNUSED + ".part"), 7);
+
+        assertEquals(5, cache.collectGarbage(Collections.emptySet()));
+        assertFalse(Files.exists(abandoned));
+        assertTrue(Files.exists(fresh));
+    }
+
+    /**
+     * Makes an entry look as if it was last used some days ago.
+     */
+    private static void age(DownloadCache cache, String sha1, int days) throws IOException {
+        FileTime time = FileTime.fromMillis(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(days));
+        Path entry = cache.getPath(sha1);
+        Files.setLastModifiedTime(entry, time);
+        Path access = entry.resolveSibling(entry.getFileName() + ".access");
+        if (Files.exists(access))
+            Files.setLastModifiedTime(access, time);
+    }
+
+    private void put(DownloadCache cache, String sha1, int size) throws IOException {
+        cache.put(sha1, write(dir.resolve("source-" + sha1), size));
+    }
+
+    private static Path write(Path path, int size) throws IOException {
+        Files.createDirectories(path.getParent());
+        return Files.write(path, new byte[size]);
+    }
+}
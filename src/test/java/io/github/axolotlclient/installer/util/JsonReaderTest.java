@@ -0,0 +1,153 @@
+/*
+ * Copyright © 2023-2023 moehreag <moehreag@gmail.com>, TheKodeToad <TheKodeToad@proton.me> & Contributors
+ *
+ * This file is part of AxolotlClient Installer.
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ * For more information, see the LICENSE file.
+ */
+
+package io.github.axolotlclient.installer.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+
+import org.junit.jupiter.api.Test;
+
+class JsonReaderTest {
+
+    @Test
+    void readsEscapes() throws IOException {
+        JsonReader reader = reader("\"\\\" \\\\ \\/ \\b \\f \\n \\r \\t \\u00e9\"");
+        assertEquals("\" \\ / \b \f \n \r \t \u00e9", reader.nextString());
+    }
+
+    @Test
+    void readsSurrogatePairs() throws IOException {
+        String text = reader("\"\\uD83D\\uDE00 \\ud83d\\ude00\"").nextString();
+
+        assertEquals("\uD83D\uDE00 \uD83D\uDE00", text);
+        assertEquals(0x1F600, text.codePointAt(0));
+    }
+
+    @Test
+    void readsEscapesSplitAcrossReads() throws IOException {
+        // every read returns one character, so each escape straddles a refill of the buffer
+        JsonReader reader = new JsonReader(new FilterReader(new StringReader("[\"a\\n\\uD83D\\uDE00b\", 12]")) {
+            @Override
+            public int read(char[] buffer, int off, int len) throws IOException {
+                return super.read(buffer, off, Math.min(len, 1));
+            }
+        });
+
+        reader.beginArray();
+        assertEquals("a\n\uD83D\uDE00b", reader.nextString());
+        assertEquals(12, reader.nextInt());
+        reader.endArray();
+        assertEquals(JsonReader.Token.END_DOCUMENT, reader.peek());
+    }
+
+    @Test
+    void readsStringsLongerThanBuffer() throws IOException {
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 10_000; i++)
+            expected.append(i % 7 == 0 ? '"' : (char) ('a' + i % 26));
+
+        String json = '"' + expected.toString().replace("\"", "\\\"") + '"';
+        assertEquals(expected.toString(), reader(json).nextString());
+    }
+
+    @Test
+    void readsExponents() throws IOException {
+        JsonReader reader = reader("[1e3, -2.5E2, 4E+1, 1.5e-3, 7]");
+        reader.beginArray();
+        assertEquals(1000, reader.nextLong());
+        assertEquals(-250, reader.nextLong());
+        assertEquals(40, reader.nextInt());
+        assertEquals("1.5e-3", reader.nextString());
+        assertEquals(7, reader.nextLong());
+        reader.endArray();
+    }
+
+    @Test
+    void rejectsOutOfRangeInts() {
+        assertThrows(IOException.class, () -> reader("1e10").nextInt());
+    }
+
+    @Test
+    void readsLiterals() throws IOException {
+        JsonReader reader = reader("{\"a\": true, \"b\": false, \"c\": null}");
+        reader.beginObject();
+        assertEquals("a", reader.nextName());
+        assertTrue(reader.nextBoolean());
+        assertEquals("b", reader.nextName());
+        assertFalse(reader.nextBoolean());
+        assertEquals("c", reader.nextName());
+        reader.nextNull();
+        assertFalse(reader.hasNext());
+        reader.endObject();
+    }
+
+    @Test
+    void skipsNestedValues() throws IOException {
+        JsonReader reader = reader("{\"skip\": {\"a\": [1, {\"b\": \"}]\\\"\"}, null], \"c\": [[]]}, \"keep\": 2}");
+        reader.beginObject();
+        assertEquals("skip", reader.nextName());
+        reader.skipValue();
+        assertEquals("keep", reader.nextName());
+        assertEquals(2, reader.nextInt());
+        reader.endObject();
+    }
+
+    @Test
+    void rejectsTruncatedInput() {
+        assertThrows(IOException.class, () -> readFully("{\"a\": \"b"));
+        assertThrows(IOException.class, () -> readFully("{\"a\""));
+        assertThrows(IOException.class, () -> readFully("{\"a\":"));
+        assertThrows(IOException.class, () -> readFully("[1, 2"));
+        assertThrows(IOException.class, () -> readFully("[\"a\\u00"));
+        assertThrows(IOException.class, () -> readFully("[tru"));
+        assertThrows(IOException.class, () -> readFully(""));
+    }
+
+    @Test
+    void rejectsMalformedInput() {
+        assertThrows(IOException.class, () -> readFully("[1 2]"));
+        assertThrows(IOException.class, () -> readFully("{\"a\" 1}"));
+        assertThrows(IOException.class, () -> readFully("[\"\\uZZZZ\"]"));
+        assertThrows(IOException.class, () -> readFully("[1] 2"));
+    }
+
+    private static JsonReader reader(String json) {
+        return new JsonReader(new StringReader(json));
+    }
+
+    /**
+     * Reads a whole document, including the check that nothing follows it.
+     */
+    private static void readFully(String json) throws IOException {
+        JsonReader reader = reader(json);
+        reader.skipValue();
+        reader.peek();
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright © 2023-2023 moehreag <moehreag@gmail.com>, TheKodeToad <TheKodeToad@proton.me> & Contributors
+ *
+ * This file is part of AxolotlClient Installer.
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ * For more information, see the LICENSE file.
+ */
+
+package io.github.axolotlclient.installer.util;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class LoaderProfileCacheTest {
+
+    private static final byte[] PROFILE = "{\"id\":\"quilt-loader-0.19.0-1.20.1\"}".getBytes(StandardCharsets.UTF_8);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void keepsProfilesAcrossInstances() throws IOException {
+        assertNull(new LoaderProfileCache(dir).get("quilt", "1.20.1", "0.19.0"));
+
+        Path stored = new LoaderProfileCache(dir).put("quilt", "1.20.1", "0.19.0", PROFILE);
+        Path cached = new LoaderProfileCache(dir).get("quilt", "1.20.1", "0.19.0");
+
+        assertEquals(stored, cached);
+        assertArrayEquals(PROFILE, Files.readAllBytes(cached));
+        assertNull(new LoaderProfileCache(dir).get("fabric", "1.20.1", "0.19.0"));
+        assertNull(new LoaderProfileCache(dir).get("quilt", "1.20", "0.19.0"));
+    }
+
+    @Test
+    void keepsEveryKeyInsideTheCache() throws IOException {
+        LoaderProfileCache cache = new LoaderProfileCache(dir.resolve("loaders"));
+
+        Path parent = cache.put("ornithe", "..", "..", PROFILE);
+        Path nested = cache.put("ornithe", "1.8.9/../..", "0.14.21", PROFILE);
+
+        assertTrue(parent.startsWith(dir.resolve("loaders")), parent.toString());
+        assertTrue(nested.startsWith(dir.resolve("loaders")), nested.toString());
+        assertNotEquals(parent.getParent(), dir.resolve("loaders"));
+        assertEquals(parent, cache.get("ornithe", "..", ".."));
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright © 2023-2023 moehreag <moehreag@gmail.com>, TheKodeToad <TheKodeToad@proton.me> & Contributors
+ *
+ * This file is part of AxolotlClient Installer.
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ * For more information, see the LICENSE file.
+ */
+
+package io.github.axolotlclient.installer.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+class MinecraftVersionTest {
+
+    @Test
+    void ordersVersions() {
+        List<String> expected = Arrays.asList("unknown", "20w14infinite", "23w13a", "23w14a", "rd-132211",
+                "c0.0.13a", "inf-20100618", "a1.0.4", "b1.7.3", "1.0", "1.8.9", "1.14", "1.14_combat-212796",
+                "1.14.4", "1.19-pre1", "1.19-pre2", "1.19-rc1", "1.19", "1.19.4", "1.20 Pre-release 1", "1.20",
+                "1.20.1");
+
+        List<String> shuffled = new ArrayList<>(expected);
+        Collections.shuffle(shuffled, new Random(0));
+        List<String> sorted = shuffled.stream().map(MinecraftVersion::parse).sorted()
+                .map(MinecraftVersion::getName).collect(Collectors.toList());
+
+        assertEquals(expected, sorted);
+    }
+
+    @Test
+    void classifiesVersions() {
+        assertTrue(MinecraftVersion.parse("1.20.1").isRelease());
+        assertTrue(MinecraftVersion.parse("b1.7.3").isRelease());
+        assertFalse(MinecraftVersion.parse("1.19-rc1").isRelease());
+        assertFalse(MinecraftVersion.parse("23w13a").isRelease());
+        assertTrue(MinecraftVersion.parse("23w13a").isSnapshot());
+        assertFalse(MinecraftVersion.parse("1.8.9").isSnapshot());
+    }
+
+    @Test
+    void checksRanges() {
+        MinecraftVersion min = MinecraftVersion.parse("1.8.9");
+        MinecraftVersion max = MinecraftVersion.parse("1.19.4");
+
+        assertTrue(MinecraftVersion.parse("1.8.9").isBetween(min, max));
+        assertTrue(MinecraftVersion.parse("1.12.2").isBetween(min, max));
+        assertTrue(MinecraftVersion.parse("1.19.4").isBetween(min, max));
+        assertFalse(MinecraftVersion.parse("1.20").isBetween(min, max));
+        assertFalse(MinecraftVersion.parse("1.8").isBetween(min, max));
+    }
+
+    @Test
+    void isConsistentWithEquals() {
+        MinecraftVersion a = MinecraftVersion.parse("foo");
+        MinecraftVersion b = MinecraftVersion.parse("bar");
+
+        assertEquals(MinecraftVersion.parse("foo"), a);
+        assertSame(MinecraftVersion.parse("1.20"), MinecraftVersion.parse("1.20"));
+        assertTrue(a.compareTo(b) > 0);
+        assertTrue(b.compareTo(a) < 0);
+    }
+}
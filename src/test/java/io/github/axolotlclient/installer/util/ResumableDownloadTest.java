@@ -0,0 +1,181 @@
+/*
+ * Copyright © 2023-2023 moehreag <moehreag@gmail.com>, TheKodeToad <TheKodeToad@proton.me> & Contributors
+ *
+ * This file is part of AxolotlClient Installer.
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ * For more information, see the LICENSE file.
+ */
+
+package io.github.axolotlclient.installer.util;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.github.axolotlclient.installer.ProgressConsumer;
+import io.github.axolotlclient.installer.http.FakeTransport;
+import io.github.axolotlclient.installer.http.Http;
+import io.github.axolotlclient.installer.http.HttpRequest;
+import io.github.axolotlclient.installer.http.HttpTransport;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ResumableDownloadTest {
+
+    private static final String URL = "https://example.com/mod.jar";
+    private static final String ETAG = "\"v1\"";
+    // past the first checkpoint, so that an interrupted download has something to resume from
+    private static final int SIZE = 5 * 1024 * 1024;
+    private static final int CUT = 4 * 1024 * 1024 + 1000;
+
+    @TempDir
+    Path dir;
+    private HttpTransport previous;
+    private FakeTransport fake;
+    private byte[] body;
+    private String sha1;
+    private URL url;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        previous = Http.getTransport();
+        fake = new FakeTransport();
+        Http.setTransport(fake);
+
+        body = new byte[SIZE];
+        new Random(0).nextBytes(body);
+        sha1 = Util.toHex(Util.sha1().digest(body));
+        url = new URL(URL);
+    }
+
+    @AfterEach
+    void tearDown() {
+        Http.setTransport(previous);
+    }
+
+    @Test
+    void downloadsAndVerifies() throws IOException {
+        fake.serve(URL, body);
+        Path target = dir.resolve("mod.jar");
+
+        ResumableDownload.download(url, target, sha1, SIZE, ProgressConsumer.NONE);
+
+        assertArrayEquals(body, Files.readAllBytes(target));
+        assertFalse(Files.exists(dir.resolve("mod.jar.part")));
+    }
+
+    @Test
+    void resumesWithIfRange() throws IOException {
+        Path target = dir.resolve("mod.jar");
+        interrupt(target);
+
+        fake.serve(URL, request -> {
+            if (!ETAG.equals(request.getHeader("If-Range")))
+                return FakeTransport.response(200, body);
+
+            int start = Integer.parseInt(request.getHeader("Range").replaceAll("\\D", ""));
+            return FakeTransport.response(206, new ByteArrayInputStream(body, start, SIZE - start),
+                    Collections.emptyMap());
+        });
+        ResumableDownload.download(url, target, sha1, SIZE, ProgressConsumer.NONE);
+
+        List<HttpRequest> requests = fake.getRequests();
+        HttpRequest resumed = requests.get(requests.size() - 1);
+        assertEquals("bytes=" + CUT + '-', resumed.getHeader("Range"));
+        assertEquals(ETAG, resumed.getHeader("If-Range"));
+        assertArrayEquals(body, Files.readAllBytes(target));
+        assertFalse(Files.exists(dir.resolve("mod.jar.part")));
+    }
+
+    @Test
+    void restartsWhenServerIgnoresRange() throws IOException {
+        Path target = dir.resolve("mod.jar");
+        interrupt(target);
+
+        // what a server sends when the If-Range validator no longer matches
+        fake.serve(URL, request -> FakeTransport.response(200, body));
+        ResumableDownload.download(url, target, sha1, SIZE, ProgressConsumer.NONE);
+
+        assertArrayEquals(body, Files.readAllBytes(target));
+    }
+
+    @Test
+    void discardsPartialFileOnHashMismatch() throws IOException {
+        byte[] corrupt = body.clone();
+        corrupt[SIZE / 2] ^= 1;
+        fake.serve(URL, corrupt);
+        Path target = dir.resolve("mod.jar");
+
+        assertThrows(IOException.class, () -> ResumableDownload.download(url, target, sha1, SIZE,
+                ProgressConsumer.NONE));
+
+        assertFalse(Files.exists(target));
+        assertFalse(Files.exists(dir.resolve("mod.jar.part")));
+    }
+
+    @Test
+    void doesNotResumeForDifferentContents() throws IOException {
+        Path target = dir.resolve("mod.jar");
+        interrupt(target);
+
+        byte[] other = new byte[SIZE];
+        new Random(1).nextBytes(other);
+        fake.serve(URL, other);
+        ResumableDownload.download(url, target, Util.toHex(Util.sha1().digest(other)), SIZE,
+                ProgressConsumer.NONE);
+
+        List<HttpRequest> requests = fake.getRequests();
+        assertNull(requests.get(requests.size() - 1).getHeader("Range"));
+        assertArrayEquals(other, Files.readAllBytes(target));
+    }
+
+    /**
+     * Starts downloading the body, failing after {@value #CUT} bytes.
+     */
+    private void interrupt(Path target) {
+        AtomicInteger read = new AtomicInteger();
+        fake.serve(URL, request -> FakeTransport.response(200, new FilterInputStream(new ByteArrayInputStream(body)) {
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                if (read.get() >= CUT)
+                    throw new IOException("Connection reset");
+
+                int count = super.read(b, off, Math.min(len, CUT - read.get()));
+                read.addAndGet(count);
+                return count;
+            }
+        }, Collections.singletonMap("ETag", ETAG)));
+
+        assertThrows(IOException.class, () -> ResumableDownload.download(url, target, sha1, SIZE,
+                ProgressConsumer.NONE));
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright © 2023-2023 moehreag <moehreag@gmail.com>, TheKodeToad <TheKodeToad@proton.me> & Contributors
+ *
+ * This file is part of AxolotlClient Installer.
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ *
+ * For more information, see the LICENSE file.
+ */
+
+package io.github.axolotlclient.installer.util;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class UtilTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void copiesFilesLargerThanOneTransfer() throws IOException {
+        byte[] data = new byte[3 * 1024 * 1024 + 7];
+        for (int i = 0; i < data.length; i++)
+            data[i] = (byte) (i * 31);
+        Path source = Files.write(dir.resolve("source"), data);
+
+        Util.copyFile(source, dir.resolve("target"));
+
+        assertArrayEquals(data, Files.readAllBytes(dir.resolve("target")));
+    }
+
+    @Test
+    void replacesLinkedTargetsInsteadOfWritingThroughThem() throws IOException {
+        Path shared = Files.write(dir.resolve("shared"), bytes("shared"));
+        Path linked = dir.resolve("linked");
+        try {
+            Files.createLink(linked, shared);
+        } catch (UnsupportedOperationException e) {
+            Files.copy(shared, linked);
+        }
+
+        Util.copy(new ByteArrayInputStream(bytes("new")), linked);
+        assertEquals("new", read(linked));
+        assertEquals("shared", read(shared));
+
+        Util.copyFile(Files.write(dir.resolve("other"), bytes("other")), linked);
+        assertEquals("other", read(linked));
+        assertEquals("shared", read(shared));
+    }
+
+    @Test
+    void readsStreamsOfAnySize() throws IOException {
+        byte[] data = new byte[200_000];
+        data[data.length - 1] = 1;
+        assertArrayEquals(data, Util.readBytes(new ByteArrayInputStream(data)));
+        assertArrayEquals(data, Util.readBytes(new ByteArrayInputStream(data), 10));
+        assertArrayEquals(new byte[0], Util.readBytes(new ByteArrayInputStream(new byte[0]), 0));
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String read(Path path) throws IOException {
+        return new String(Files.readAllBytes(path), StandardCharsets.UTF_8);
+    }
+}